@@ -117,10 +117,24 @@
 // }
 
 import javax.swing.SwingUtilities;
+import cli.BatchSolver;
 import gui.MainFrame;
+import java.util.Arrays;
+import server.SolverServer;
 
 public class Main {
+    // With arguments the solver runs headless; BatchSolver and SolverServer never load AWT or Swing.
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--serve")) {
+            int code = SolverServer.run(Arrays.copyOfRange(args, 1, args.length));
+            if (code != 0) {
+                System.exit(code);
+            }
+            return;
+        }
+        if (args.length > 0) {
+            System.exit(BatchSolver.run(args));
+        }
         SwingUtilities.invokeLater(() -> new MainFrame().setVisible(true));
     }
 }
\ No newline at end of file
@@ -0,0 +1,149 @@
+package algorithm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import model.Board;
+import model.Move;
+import model.State;
+
+// Picks an algorithm and heuristic for each board from its BoardFeatures, using a table that
+// benchmark.SelectionCalibrator fits offline: every candidate solves a corpus, the puzzles are
+// grouped by feature ranges, and a range gets its own row when one candidate generates clearly
+// fewer nodes there than the best fixed configuration. Choices are tallied per configuration
+// for the whole process.
+public class AutoSearch implements Pathfinder {
+    // Rows are tried in order and the first whose limits the board is within wins; the last
+    // row catches everything else. No feature split has beaten gbfs/combined, the best fixed
+    // configuration over the calibration corpus, on both the fitted three quarters and the
+    // held-out quarter, so it is the only row: 677579 generated nodes on the fitted part and
+    // 276493 on the held-out part, against 672918 and 357132 for gbfs/blocking. Regenerate with:
+    //   java -cp bin benchmark.SelectionCalibrator test/calibration-corpus.txt
+    private static final Rule[] TABLE = {
+            new Rule(Long.MAX_VALUE, Integer.MAX_VALUE, 1.0, PathfinderFactory.GREEDY_BEST_FIRST, HeuristicFactory.COMBINED_HEURISTIC),
+    };
+
+    private static final Map<String, AtomicLong> CHOICES = new ConcurrentHashMap<>();
+
+    private final boolean canonicalizeStates;
+
+    private BoardFeatures features;
+    private PortfolioSearch.Config choice;
+    private BestFirstSearch search;
+
+    public AutoSearch(boolean canonicalizeStates) {
+        this.canonicalizeStates = canonicalizeStates;
+    }
+
+    public static PortfolioSearch.Config select(BoardFeatures features) {
+        for (Rule rule : TABLE) {
+            if (rule.matches(features)) {
+                return rule.config;
+            }
+        }
+        return TABLE[TABLE.length - 1].config;
+    }
+
+    @Override
+    public List<Move> findPath(Board initialBoard) {
+        features = BoardFeatures.of(initialBoard);
+        choice = select(features);
+        CHOICES.computeIfAbsent(choice.toString(), name -> new AtomicLong()).incrementAndGet();
+        search = choice.create(canonicalizeStates);
+        return search.findPath(initialBoard);
+    }
+
+    // The features and configuration of the last findPath, or null before the first.
+    public BoardFeatures getFeatures() {
+        return features;
+    }
+
+    public PortfolioSearch.Config getChoice() {
+        return choice;
+    }
+
+    // Boards sent to each configuration across all automatic searches in this process.
+    public static Map<String, Long> getChoiceCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        CHOICES.forEach((name, count) -> counts.put(name, count.get()));
+        return counts;
+    }
+
+    @Override
+    public int getNodesVisited() {
+        return search != null ? search.getNodesVisited() : 0;
+    }
+
+    @Override
+    public List<State> getSolutionStates() {
+        return search != null ? search.getSolutionStates() : new ArrayList<>();
+    }
+
+    // One row of the selection table: a board is within it when each feature is at most the
+    // row's limit.
+    public static final class Rule {
+        private final long maxEstimatedStates;
+        private final int maxExitLaneBlockers;
+        private final double maxLaneCongestion;
+        private final PortfolioSearch.Config config;
+
+        public Rule(long maxEstimatedStates, int maxExitLaneBlockers, double maxLaneCongestion,
+                    int algorithm, int heuristic) {
+            this.maxEstimatedStates = maxEstimatedStates;
+            this.maxExitLaneBlockers = maxExitLaneBlockers;
+            this.maxLaneCongestion = maxLaneCongestion;
+            this.config = new PortfolioSearch.Config(algorithm, heuristic);
+        }
+
+        public boolean matches(BoardFeatures features) {
+            return features.getEstimatedStates() <= maxEstimatedStates
+                    && features.getExitLaneBlockers() <= maxExitLaneBlockers
+                    && features.getLaneCongestion() <= maxLaneCongestion;
+        }
+
+        // Whether every board within other is also within this row.
+        public boolean covers(Rule other) {
+            return maxEstimatedStates >= other.maxEstimatedStates && maxExitLaneBlockers >= other.maxExitLaneBlockers
+                    && maxLaneCongestion >= other.maxLaneCongestion;
+        }
+
+        public PortfolioSearch.Config getConfig() {
+            return config;
+        }
+
+        // The row as it is written in TABLE.
+        public String toSource() {
+            return String.format(Locale.ROOT, "new Rule(%s, %s, %s, PathfinderFactory.%s, %s),",
+                    maxEstimatedStates == Long.MAX_VALUE ? "Long.MAX_VALUE" : maxEstimatedStates + "L",
+                    maxExitLaneBlockers == Integer.MAX_VALUE ? "Integer.MAX_VALUE" : String.valueOf(maxExitLaneBlockers),
+                    maxLaneCongestion, algorithmConstant(config.getAlgorithm()),
+                    config.getAlgorithm() == PathfinderFactory.UCS ? "0" : "HeuristicFactory." + heuristicConstant(config.getHeuristic()));
+        }
+
+        private static String algorithmConstant(int algorithm) {
+            switch (algorithm) {
+                case PathfinderFactory.UCS:
+                    return "UCS";
+                case PathfinderFactory.GREEDY_BEST_FIRST:
+                    return "GREEDY_BEST_FIRST";
+                default:
+                    return "A_STAR";
+            }
+        }
+
+        private static String heuristicConstant(int heuristic) {
+            switch (heuristic) {
+                case HeuristicFactory.DISTANCE_HEURISTIC:
+                    return "DISTANCE_HEURISTIC";
+                case HeuristicFactory.BLOCKING_VEHICLES_HEURISTIC:
+                    return "BLOCKING_VEHICLES_HEURISTIC";
+                default:
+                    return "COMBINED_HEURISTIC";
+            }
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package algorithm;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import model.Board;
+import model.Move;
+import model.State;
+
+// Breadth-first by number of moves, keeping only the K states with the lowest heuristic
+// value (then lowest cost) at each depth. Memory is bounded by K states per depth plus an
+// 8-byte hash per state ever kept in the beam (children that are cut are not remembered),
+// so it grows with K and the depth rather than with the puzzle's state space.
+// Each depth is expanded in parallel; the heuristic must be safe to share between threads,
+// as every HeuristicFactory heuristic is. If a beam runs dry without reaching the exit, the
+// search can be repeated with twice the width until maxWidth.
+public class BeamSearch implements Pathfinder {
+    public static final int DEFAULT_WIDTH = 1000;
+    public static final int DEFAULT_MAX_WIDTH = 1 << 20;
+    private static final int MAX_DEPTH = 100_000;
+    private static final Comparator<State> BEST_FIRST =
+            Comparator.comparingInt(State::getHeuristicValue).thenComparingInt(State::getCost);
+
+    private final Heuristic heuristic;
+    private final int initialWidth;
+    private final int maxWidth;
+    private final boolean canonicalizeStates;
+    private final int threads;
+
+    private int nodesVisited;
+    private List<State> solutionStates = new ArrayList<>();
+    private int beamWidth;
+    private boolean truncated;
+
+    public BeamSearch(Heuristic heuristic, boolean canonicalizeStates) {
+        this(heuristic, DEFAULT_WIDTH, DEFAULT_MAX_WIDTH, canonicalizeStates, Runtime.getRuntime().availableProcessors());
+    }
+
+    // maxWidth equal to width turns off retrying with a wider beam.
+    public BeamSearch(Heuristic heuristic, int width, int maxWidth, boolean canonicalizeStates, int threads) {
+        if (width < 1 || maxWidth < width || threads < 1) {
+            throw new IllegalArgumentException("Beam width, maximum width and thread count must be positive");
+        }
+        this.heuristic = heuristic;
+        this.initialWidth = width;
+        this.maxWidth = maxWidth;
+        this.canonicalizeStates = canonicalizeStates;
+        this.threads = threads;
+    }
+
+    @Override
+    public List<Move> findPath(Board initialBoard) {
+        nodesVisited = 0;
+        solutionStates = new ArrayList<>();
+        if (SolvabilityAnalyzer.analyze(initialBoard).isProvablyUnsolvable()) {
+            beamWidth = initialWidth;
+            truncated = false;
+            return new ArrayList<>();
+        }
+
+        ExecutorService pool = threads > 1 ? Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "beam-search");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+        try {
+            // A wider beam only helps if the last one had to drop states.
+            for (beamWidth = initialWidth; ; beamWidth = (int) Math.min(maxWidth, 2L * beamWidth)) {
+                State goal = search(initialBoard, pool);
+                if (goal != null) {
+                    return reconstructPath(goal);
+                }
+                if (!truncated || beamWidth >= maxWidth) {
+                    return new ArrayList<>();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ArrayList<>();
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Beam expansion failed: " + e.getCause(), e.getCause());
+        } finally {
+            if (pool != null) {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    private State search(Board initialBoard, ExecutorService pool) throws InterruptedException, ExecutionException {
+        truncated = false;
+        State initial = new State(initialBoard, null, null, 0);
+        initial.setHeuristicValue(estimate(initial));
+        LongSet seen = new LongSet();
+        seen.add(hashOf(initialBoard));
+        List<State> beam = new ArrayList<>();
+        beam.add(initial);
+
+        for (int depth = 0; !beam.isEmpty() && depth < MAX_DEPTH; depth++) {
+            nodesVisited += beam.size();
+            for (State state : beam) {
+                if (state.getBoard().canPrimaryPieceExit()) {
+                    return state;
+                }
+            }
+
+            List<State> children = expand(beam, pool);
+            List<State> next = new ArrayList<>();
+            LongSet layer = new LongSet();
+            for (State child : children) {
+                long hash = hashOf(child.getBoard());
+                if (!seen.contains(hash) && layer.add(hash)) {
+                    next.add(child);
+                }
+            }
+            if (next.size() > beamWidth) {
+                next.sort(BEST_FIRST);
+                next = new ArrayList<>(next.subList(0, beamWidth));
+                truncated = true;
+            }
+            // Only the states that survived the cut are remembered, so seen grows by at most K a layer.
+            for (State kept : next) {
+                seen.add(hashOf(kept.getBoard()));
+            }
+            beam = next;
+        }
+        truncated |= !beam.isEmpty();
+        return null;
+    }
+
+    // Children of every state in the beam, in beam order, with their heuristic values set.
+    private List<State> expand(List<State> beam, ExecutorService pool) throws InterruptedException, ExecutionException {
+        if (pool == null || beam.size() < 2 * threads) {
+            return expandRange(beam, 0, beam.size());
+        }
+        List<Callable<List<State>>> tasks = new ArrayList<>();
+        int chunk = (beam.size() + threads - 1) / threads;
+        for (int from = 0; from < beam.size(); from += chunk) {
+            int start = from;
+            int end = Math.min(beam.size(), from + chunk);
+            tasks.add(() -> expandRange(beam, start, end));
+        }
+        List<State> children = new ArrayList<>();
+        for (Future<List<State>> part : pool.invokeAll(tasks)) {
+            children.addAll(part.get());
+        }
+        return children;
+    }
+
+    private List<State> expandRange(List<State> beam, int from, int to) {
+        List<State> children = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            State state = beam.get(i);
+            Board board = state.getBoard();
+            for (Move move : MoveGenerator.generateMoves(board, state.getMoveMade())) {
+                State child = new State(MoveGenerator.applyMove(board, move), state, move, state.getCost() + move.getSteps());
+                child.setHeuristicValue(estimate(child));
+                children.add(child);
+            }
+        }
+        return children;
+    }
+
+    private int estimate(State state) {
+        return heuristic == null ? 0 : heuristic.calculate(state);
+    }
+
+    // Only hashes are kept for duplicate detection, so old layers can be collected; a 64-bit
+    // collision would at worst drop one state from a search that is already approximate.
+    private long hashOf(Board board) {
+        return canonicalizeStates ? StateKey.canonical(board).getHash() : board.getZobristHash();
+    }
+
+    private List<Move> reconstructPath(State goal) {
+        List<Move> path = new ArrayList<>();
+        List<State> statePath = new ArrayList<>();
+        for (State current = goal; current != null; current = current.getParent()) {
+            statePath.add(current);
+            if (current.getMoveMade() != null) {
+                path.add(current.getMoveMade());
+            }
+        }
+        Collections.reverse(path);
+        Collections.reverse(statePath);
+        solutionStates = statePath;
+        return path;
+    }
+
+    // Width of the beam that produced the last result (or of the widest one tried).
+    public int getBeamWidth() {
+        return beamWidth;
+    }
+
+    // With no state ever dropped, depth order finds a solution with the fewest moves, and if
+    // each of its moves is one step no solution can cost less. Anything else may be beaten.
+    public boolean isPossiblySuboptimal() {
+        if (truncated) {
+            return true;
+        }
+        for (int i = 1; i < solutionStates.size(); i++) {
+            if (solutionStates.get(i).getMoveMade().getSteps() > 1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int getNodesVisited() {
+        return nodesVisited;
+    }
+
+    @Override
+    public List<State> getSolutionStates() {
+        return solutionStates;
+    }
+
+    // Open-addressing set of 64-bit hashes in a single long[]: 8 to 16 bytes a hash rather
+    // than a boxed Long and a HashMap node. Zero marks an empty slot, so it is kept aside.
+    private static class LongSet {
+        private long[] slots = new long[1 << 10];
+        private int size;
+        private boolean hasZero;
+
+        boolean contains(long hash) {
+            if (hash == 0) {
+                return hasZero;
+            }
+            int mask = slots.length - 1;
+            for (int slot = index(hash, mask); slots[slot] != 0; slot = (slot + 1) & mask) {
+                if (slots[slot] == hash) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean add(long hash) {
+            if (hash == 0) {
+                boolean added = !hasZero;
+                hasZero = true;
+                return added;
+            }
+            int mask = slots.length - 1;
+            int slot = index(hash, mask);
+            while (slots[slot] != 0) {
+                if (slots[slot] == hash) {
+                    return false;
+                }
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = hash;
+            if (++size * 2 > slots.length) {
+                resize();
+            }
+            return true;
+        }
+
+        private void resize() {
+            long[] old = slots;
+            slots = new long[old.length * 2];
+            int mask = slots.length - 1;
+            for (long hash : old) {
+                if (hash != 0) {
+                    int slot = index(hash, mask);
+                    while (slots[slot] != 0) {
+                        slot = (slot + 1) & mask;
+                    }
+                    slots[slot] = hash;
+                }
+            }
+        }
+
+        private static int index(long hash, int mask) {
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package algorithm;
+
+import java.util.*;
+import jdk.jfr.FlightRecorder;
+import model.*;
+
+// Every solve keeps its working state in locals and per-thread scratch, so one instance can
+// run solve on many threads at once. findPath also records the last result on the instance
+// for the Pathfinder getters, which makes it safe only for one caller at a time.
+public class BestFirstSearch implements Pathfinder {
+    // Scratch that grew past this many states is dropped after the solve instead of being kept
+    // for the next one, so an idle thread doesn't hold on to a huge search.
+    private static final int SCRATCH_RETAIN_LIMIT = 1 << 16;
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+    private static final SearchResult EMPTY_RESULT =
+            new SearchResult(Collections.emptyList(), Collections.emptyList(), 0, 0, 0, 0);
+
+    private final Heuristic heuristic;
+    private final PriorityPolicy priorityPolicy;
+    private final DuplicatePolicy duplicatePolicy;
+    private final boolean canonicalizeStates;
+    private final long memoryBudgetBytes;
+    private volatile SearchResult lastResult = EMPTY_RESULT;
+    private volatile SearchTrace trace;
+    private volatile boolean cancelled;
+    private volatile int nodeLimit = Integer.MAX_VALUE;
+
+    public BestFirstSearch(Heuristic heuristic, PriorityPolicy priorityPolicy, DuplicatePolicy duplicatePolicy,
+                           boolean canonicalizeStates) {
+        this(heuristic, priorityPolicy, duplicatePolicy, canonicalizeStates, Runtime.getRuntime().maxMemory() / 4);
+    }
+
+    // memoryBudgetBytes only bounds the transposition table used by DETECT_ON_GENERATE, and
+    // applies to each solve separately.
+    public BestFirstSearch(Heuristic heuristic, PriorityPolicy priorityPolicy, DuplicatePolicy duplicatePolicy,
+                           boolean canonicalizeStates, long memoryBudgetBytes) {
+        this.heuristic = heuristic;
+        this.priorityPolicy = priorityPolicy;
+        this.duplicatePolicy = duplicatePolicy;
+        this.canonicalizeStates = canonicalizeStates;
+        this.memoryBudgetBytes = memoryBudgetBytes;
+    }
+
+    @Override
+    public List<Move> findPath(Board initialBoard) {
+        SearchResult result = solve(initialBoard);
+        lastResult = result;
+        return new ArrayList<>(result.getMoves());
+    }
+
+    @Override
+    public SearchResult solve(Board initialBoard) {
+        // Loading the first event class sets up JFR's instrumentation, which takes longer than
+        // most solves; without a recording no event class is touched.
+        if (!FlightRecorder.isInitialized()) {
+            return search(initialBoard);
+        }
+        SolveEvent event = new SolveEvent();
+        event.begin();
+        SearchResult result = search(initialBoard);
+        if (event.shouldCommit()) {
+            event.algorithm = getClass().getSimpleName();
+            event.heuristic = HeuristicFactory.nameOf(heuristic);
+            event.boardWidth = initialBoard.getWidth();
+            event.boardHeight = initialBoard.getHeight();
+            event.vehicles = initialBoard.getPieces().size();
+            event.solved = !result.getMoves().isEmpty() || initialBoard.canPrimaryPieceExit();
+            event.moves = result.getMoves().size();
+            event.cost = result.getCost();
+            event.nodesVisited = result.getNodesVisited();
+            event.nodesGenerated = result.getNodesGenerated();
+            event.commit();
+        }
+        return result;
+    }
+
+    private SearchResult search(Board initialBoard) {
+        if (SolvabilityAnalyzer.analyze(initialBoard).isProvablyUnsolvable()) {
+            return EMPTY_RESULT;
+        }
+
+        // A solve started from inside another on the same thread (say, by a heuristic) gets
+        // its own scratch rather than clobbering the outer one.
+        Scratch scratch = SCRATCH.get();
+        if (scratch.inUse) {
+            scratch = new Scratch();
+        }
+        scratch.inUse = true;
+
+        SearchTrace trace = this.trace;
+        SearchPhaseEvent.Clock clock = new SearchPhaseEvent.Clock();
+        PriorityQueue<Entry> frontier = scratch.frontier;
+        long order = 0;
+        int nodesVisited = 0;
+        long nodesGenerated = 0;
+        StateKey initialKey = stateKey(initialBoard);
+
+        TranspositionTable<StateKey> seen = null;
+        Map<StateKey, Integer> bestCost = null;
+        Set<StateKey> closed = null;
+        if (duplicatePolicy == DuplicatePolicy.DETECT_ON_GENERATE) {
+            seen = TranspositionTable.forMemoryBudget(memoryBudgetBytes,
+                    StateKey.estimatedBytes(initialBoard, canonicalizeStates));
+            seen.add(initialKey);
+        } else {
+            bestCost = scratch.bestCost;
+            bestCost.put(initialKey, 0);
+            if (duplicatePolicy == DuplicatePolicy.DETECT_ON_EXPAND) {
+                closed = scratch.closed;
+            }
+        }
+
+        frontier.add(newEntry(new State(initialBoard, null, null, 0), initialKey, order++));
+
+        State goal = null;
+        int nodeLimit = this.nodeLimit;
+        try {
+            while (!frontier.isEmpty()) {
+                if (cancelled || nodesVisited >= nodeLimit) {
+                    break;
+                }
+                Entry entry = frontier.poll();
+                State currentState = entry.state;
+                clock.lap(SearchPhaseEvent.Clock.OPEN_LIST);
+
+                if (bestCost != null) {
+                    // Lazy deletion: a cheaper copy of this board was queued after this one.
+                    boolean stale = currentState.getCost() > bestCost.get(entry.key)
+                            || (closed != null && !closed.add(entry.key));
+                    clock.lap(SearchPhaseEvent.Clock.HASHING);
+                    if (stale) {
+                        continue;
+                    }
+                }
+                nodesVisited++;
+                if (trace != null) {
+                    trace.recordExpansion(currentState, entry.priority, frontier.size());
+                }
+
+                Board currentBoard = currentState.getBoard();
+                if (currentBoard.canPrimaryPieceExit()) {
+                    goal = currentState;
+                    break;
+                }
+                clock.skip();
+
+                List<Move> moves = MoveGenerator.generateMoves(currentBoard, currentState.getMoveMade());
+                clock.lap(SearchPhaseEvent.Clock.MOVE_GENERATION);
+                for (Move move : moves) {
+                    nodesGenerated++;
+                    Board newBoard = MoveGenerator.applyMove(currentBoard, move);
+                    clock.lap(SearchPhaseEvent.Clock.MOVE_GENERATION);
+                    StateKey newKey = stateKey(newBoard);
+                    int newCost = currentState.getCost() + move.getSteps();
+
+                    if (seen != null) {
+                        boolean duplicate = seen.contains(newKey);
+                        if (!duplicate) {
+                            seen.add(newKey);
+                        }
+                        clock.lap(SearchPhaseEvent.Clock.HASHING);
+                        if (duplicate) {
+                            continue;
+                        }
+                    } else {
+                        boolean duplicate = closed != null && closed.contains(newKey);
+                        if (!duplicate) {
+                            Integer known = bestCost.get(newKey);
+                            duplicate = known != null && known <= newCost;
+                            if (!duplicate) {
+                                bestCost.put(newKey, newCost);
+                            }
+                        }
+                        clock.lap(SearchPhaseEvent.Clock.HASHING);
+                        if (duplicate) {
+                            continue;
+                        }
+                    }
+
+                    Entry newEntry = newEntry(new State(newBoard, currentState, move, newCost), newKey, order++);
+                    clock.lap(SearchPhaseEvent.Clock.HEURISTIC);
+                    frontier.add(newEntry);
+                    clock.lap(SearchPhaseEvent.Clock.OPEN_LIST);
+                }
+            }
+        } finally {
+            scratch.release();
+            clock.finish(nodesVisited);
+        }
+
+        List<Move> path = new ArrayList<>();
+        List<State> statePath = new ArrayList<>();
+        if (goal != null) {
+            reconstructPath(goal, path, statePath);
+        }
+        return new SearchResult(path, statePath, nodesVisited, nodesGenerated,
+                seen != null ? seen.getEvictions() : 0, seen != null ? seen.getReinsertions() : 0);
+    }
+
+    private Entry newEntry(State state, StateKey key, long order) {
+        int heuristicValue = heuristic == null ? 0 : heuristic.calculate(state);
+        state.setHeuristicValue(heuristicValue);
+        return new Entry(state, key, priorityPolicy.priority(state.getCost(), heuristicValue), order);
+    }
+
+    private static void reconstructPath(State goalState, List<Move> path, List<State> statePath) {
+        State current = goalState;
+        while (current.getParent() != null) {
+            path.add(current.getMoveMade());
+            statePath.add(current);
+            current = current.getParent();
+        }
+        statePath.add(current);
+        Collections.reverse(path);
+        Collections.reverse(statePath);
+    }
+
+    private StateKey stateKey(Board board) {
+        return canonicalizeStates ? StateKey.canonical(board) : StateKey.of(board);
+    }
+
+    // Samples of each later solve go to this trace; null turns tracing off. A trace takes one
+    // writer, so only one solve at a time may run while it is set.
+    public void setTrace(SearchTrace trace) {
+        this.trace = trace;
+    }
+
+    // Later solves stop with an empty path after this many expansions. Unlike a time limit, the
+    // cut-off lands on the same node every run, which calibration tools rely on.
+    public void setNodeLimit(int nodeLimit) {
+        if (nodeLimit <= 0) {
+            throw new IllegalArgumentException("Node limit must be positive");
+        }
+        this.nodeLimit = nodeLimit;
+    }
+
+    // Makes every running solve, and any later one, return an empty path at its next expansion.
+    // Safe to call from any thread; a cancelled search is not reused.
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    // The getters below describe the last findPath; solve results carry their own.
+
+    // Successor boards built, including those then discarded as duplicates.
+    public long getNodesGenerated() {
+        return lastResult.getNodesGenerated();
+    }
+
+    public long getEvictions() {
+        return lastResult.getEvictions();
+    }
+
+    public long getReExpansions() {
+        return lastResult.getReExpansions();
+    }
+
+    @Override
+    public int getNodesVisited() {
+        return lastResult.getNodesVisited();
+    }
+
+    @Override
+    public List<State> getSolutionStates() {
+        return new ArrayList<>(lastResult.getStates());
+    }
+
+    // Ties go to the state queued first, so runs are reproducible.
+    private static final class Entry implements Comparable<Entry> {
+        private final State state;
+        private final StateKey key;
+        private final int priority;
+        private final long order;
+
+        Entry(State state, StateKey key, int priority, long order) {
+            this.state = state;
+            this.key = key;
+            this.priority = priority;
+            this.order = order;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            if (priority != other.priority) {
+                return Integer.compare(priority, other.priority);
+            }
+            return Long.compare(order, other.order);
+        }
+    }
+
+    // Open list and duplicate tables reused by the solves on one thread.
+    private static final class Scratch {
+        private final PriorityQueue<Entry> frontier = new PriorityQueue<>();
+        private final Map<StateKey, Integer> bestCost = new HashMap<>();
+        private final Set<StateKey> closed = new HashSet<>();
+        private boolean inUse;
+
+        void release() {
+            boolean oversized = frontier.size() > SCRATCH_RETAIN_LIMIT || bestCost.size() > SCRATCH_RETAIN_LIMIT;
+            frontier.clear();
+            bestCost.clear();
+            closed.clear();
+            inUse = false;
+            if (oversized && SCRATCH.get() == this) {
+                SCRATCH.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package algorithm;
+
+import java.util.*;
+import model.*;
+
+// Depth-first search whose visited set is a Bloom filter of fixed size (bitstate hashing).
+// Only the current path is kept, one frame per move, so memory is the filter plus O(depth).
+// The depth bound starts small and doubles, with a cleared filter each time, until a solution
+// turns up or a pass ends without reaching the bound. A false positive prunes a state that was
+// never expanded, and a state first met deep down is not revisited from a shallower path, so a
+// run may miss solutions or return a longer one than necessary.
+public class BitstateSearch implements Pathfinder {
+    private static final long DEFAULT_MEMORY_BYTES = 64L * 1024 * 1024;
+    private static final int DEFAULT_HASH_COUNT = 3;
+    private static final int INITIAL_DEPTH = 16;
+    private static final int MAX_DEPTH = 1 << 14;
+
+    private int nodesVisited;
+    private List<State> solutionStates;
+    private Heuristic heuristic;
+    private long memoryBytes;
+    private int hashCount;
+
+    private long[] bits;
+    private long bitCount;
+    private long insertedStates;
+    private double expectedOmissions;
+
+    public BitstateSearch(Heuristic heuristic) {
+        this(heuristic, DEFAULT_MEMORY_BYTES, DEFAULT_HASH_COUNT);
+    }
+
+    public BitstateSearch(Heuristic heuristic, long memoryBytes, int hashCount) {
+        if (memoryBytes < 8 || hashCount < 1) {
+            throw new IllegalArgumentException("Bitstate search needs at least one word of memory and one hash");
+        }
+        this.nodesVisited = 0;
+        this.solutionStates = new ArrayList<>();
+        this.heuristic = heuristic;
+        this.memoryBytes = memoryBytes;
+        this.hashCount = hashCount;
+    }
+
+    @Override
+    public List<Move> findPath(Board initialBoard) {
+        nodesVisited = 0;
+        solutionStates = new ArrayList<>();
+        insertedStates = 0;
+        expectedOmissions = 0;
+        if (SolvabilityAnalyzer.analyze(initialBoard).isProvablyUnsolvable()) {
+            return new ArrayList<>();
+        }
+
+        bits = new long[(int) Math.min(memoryBytes / 8, Integer.MAX_VALUE - 8)];
+        bitCount = (long) bits.length * 64;
+        try {
+            for (int depthLimit = INITIAL_DEPTH; depthLimit <= MAX_DEPTH; depthLimit *= 2) {
+                Arrays.fill(bits, 0);
+                insertedStates = 0;
+                expectedOmissions = 0;
+                Deque<Frame> path = new ArrayDeque<>();
+                boolean cutOff = search(initialBoard, depthLimit, path);
+                if (!path.isEmpty()) {
+                    return reconstructPath(initialBoard, path);
+                }
+                if (!cutOff) {
+                    break;
+                }
+            }
+        } finally {
+            bits = null;
+        }
+        return new ArrayList<>();
+    }
+
+    // Depth-first pass to at most depthLimit moves. On success path holds the frames from the
+    // start to the goal; otherwise it is left empty and the result says whether the bound cut
+    // any branch off.
+    private boolean search(Board initialBoard, int depthLimit, Deque<Frame> path) {
+        boolean cutOff = false;
+        markVisited(initialBoard.getZobristHash());
+        path.push(new Frame(initialBoard, null, 0));
+        while (!path.isEmpty()) {
+            Frame frame = path.peek();
+            if (frame.moves == null) {
+                nodesVisited++;
+                if (frame.board.canPrimaryPieceExit()) {
+                    return cutOff;
+                }
+                if (path.size() > depthLimit) {
+                    cutOff = true;
+                    path.pop();
+                    continue;
+                }
+                frame.moves = orderedMoves(frame);
+            }
+            if (frame.next == frame.moves.size()) {
+                path.pop();
+                continue;
+            }
+            Move move = frame.moves.get(frame.next++);
+            Board child = MoveGenerator.applyMove(frame.board, move);
+            if (markVisited(child.getZobristHash())) {
+                path.push(new Frame(child, move, frame.cost + move.getSteps()));
+            }
+        }
+        return cutOff;
+    }
+
+    // Successor moves, the most promising first when there is a heuristic. Only the moves are
+    // kept in the frame; each child board is rebuilt when it is descended into.
+    private List<Move> orderedMoves(Frame frame) {
+        List<Move> moves = MoveGenerator.generateMoves(frame.board, frame.moveMade);
+        if (heuristic == null || moves.size() < 2) {
+            return moves;
+        }
+        int[] estimates = new int[moves.size()];
+        Integer[] order = new Integer[moves.size()];
+        for (int i = 0; i < moves.size(); i++) {
+            Move move = moves.get(i);
+            Board child = MoveGenerator.applyMove(frame.board, move);
+            estimates[i] = heuristic.calculate(new State(child, null, move, frame.cost + move.getSteps()));
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingInt(i -> estimates[i]));
+        List<Move> ordered = new ArrayList<>(moves.size());
+        for (int i : order) {
+            ordered.add(moves.get(i));
+        }
+        return ordered;
+    }
+
+    // Sets the state's bits and reports whether any of them was still clear, i.e. whether the
+    // state is new. Bits are chosen by double hashing the board's Zobrist hash and a remix of it.
+    private boolean markVisited(long hash) {
+        long h1 = hash;
+        long h2 = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+        h2 ^= h2 >>> 33;
+        h2 |= 1;
+
+        boolean isNew = false;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << (bit & 63);
+            if ((bits[word] & mask) == 0) {
+                bits[word] |= mask;
+                isNew = true;
+            }
+        }
+
+        if (isNew) {
+            // Chance that a genuinely new state arriving now would have been wrongly pruned.
+            expectedOmissions += falsePositiveRate(insertedStates);
+            insertedStates++;
+        }
+        return isNew;
+    }
+
+    private double falsePositiveRate(long states) {
+        return Math.pow(1 - Math.exp(-(double) hashCount * states / bitCount), hashCount);
+    }
+
+    // path is a stack, so the goal frame is on top and the initial board at the bottom.
+    private List<Move> reconstructPath(Board initialBoard, Deque<Frame> path) {
+        List<Move> moves = new ArrayList<>();
+        Iterator<Frame> frames = path.descendingIterator();
+        frames.next();
+        while (frames.hasNext()) {
+            moves.add(frames.next().moveMade);
+        }
+
+        List<State> statePath = new ArrayList<>();
+        State current = new State(initialBoard, null, null, 0);
+        statePath.add(current);
+        for (Move move : moves) {
+            current = new State(MoveGenerator.applyMove(current.getBoard(), move), current, move,
+                    current.getCost() + move.getSteps());
+            statePath.add(current);
+        }
+        this.solutionStates = statePath;
+
+        return moves;
+    }
+
+    // Fraction of the reachable states seen in the last pass that the filter did not wrongly discard.
+    public double getEstimatedCoverage() {
+        return insertedStates == 0 ? 1.0 : insertedStates / (insertedStates + expectedOmissions);
+    }
+
+    // Probability that the next new state would collide with the filter as it stands now.
+    public double getCollisionProbability() {
+        return falsePositiveRate(insertedStates);
+    }
+
+    public long getInsertedStates() {
+        return insertedStates;
+    }
+
+    @Override
+    public int getNodesVisited() {
+        return nodesVisited;
+    }
+
+    @Override
+    public List<State> getSolutionStates() {
+        return solutionStates;
+    }
+
+    private static class Frame {
+        private final Board board;
+        private final Move moveMade;
+        private final int cost;
+        private List<Move> moves;
+        private int next;
+
+        Frame(Board board, Move moveMade, int cost) {
+            this.board = board;
+            this.moveMade = moveMade;
+            this.cost = cost;
+        }
+    }
+}
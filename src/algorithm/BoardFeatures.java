@@ -0,0 +1,107 @@
+package algorithm;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import model.Board;
+import model.Piece;
+
+// Cheap measurements of a start board that AutoSearch picks a search by. Taking them costs one
+// pass over the exit lane and the blockers' lanes plus a SolvabilityAnalyzer run, far less than
+// expanding a single search node's worth of successors on any non-trivial board.
+public class BoardFeatures {
+    private final int width;
+    private final int height;
+    private final int vehicles;
+    private final int exitLaneBlockers;
+    private final double laneCongestion;
+    private final long estimatedStates;
+
+    public BoardFeatures(int width, int height, int vehicles, int exitLaneBlockers, double laneCongestion,
+                         long estimatedStates) {
+        this.width = width;
+        this.height = height;
+        this.vehicles = vehicles;
+        this.exitLaneBlockers = exitLaneBlockers;
+        this.laneCongestion = laneCongestion;
+        this.estimatedStates = estimatedStates;
+    }
+
+    public static BoardFeatures of(Board board) {
+        Set<Character> blockers = exitLaneBlockers(board);
+        // How full the lane each blocker slides along is, leaving out the blocker itself.
+        double congestion = 0;
+        for (char id : blockers) {
+            Piece piece = board.getPieces().get(id);
+            int laneLength = piece.isHorizontal() ? board.getWidth() : board.getHeight();
+            int occupied = 0;
+            for (int offset = 0; offset < laneLength; offset++) {
+                char cell = piece.isHorizontal() ? board.getCell(piece.getRow(), offset) : board.getCell(offset, piece.getCol());
+                if (cell != '.' && cell != id) {
+                    occupied++;
+                }
+            }
+            congestion += laneLength > piece.getLength() ? (double) occupied / (laneLength - piece.getLength()) : 1;
+        }
+        return new BoardFeatures(board.getWidth(), board.getHeight(), board.getPieces().size(), blockers.size(),
+                blockers.isEmpty() ? 0 : congestion / blockers.size(),
+                SolvabilityAnalyzer.analyze(board).getReachableStatesUpperBound());
+    }
+
+    // Distinct vehicles between the primary piece and the exit, in the order met.
+    private static Set<Character> exitLaneBlockers(Board board) {
+        Set<Character> blockers = new LinkedHashSet<>();
+        Piece primary = board.getPrimaryPiece();
+        boolean horizontal = primary.isHorizontal();
+        int lane = horizontal ? primary.getRow() : primary.getCol();
+        int exitLane = horizontal ? board.getExitRow() : board.getExitCol();
+        if (lane != exitLane) {
+            return blockers;
+        }
+        int front = horizontal ? primary.getCol() : primary.getRow();
+        int exit = horizontal ? board.getExitCol() : board.getExitRow();
+        int from = exit > front ? front + primary.getLength() : exit + 1;
+        int to = exit > front ? exit : front;
+        for (int offset = from; offset < to; offset++) {
+            char cell = horizontal ? board.getCell(lane, offset) : board.getCell(offset, lane);
+            if (cell != '.') {
+                blockers.add(cell);
+            }
+        }
+        return blockers;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getVehicles() {
+        return vehicles;
+    }
+
+    public int getExitLaneBlockers() {
+        return exitLaneBlockers;
+    }
+
+    // Mean fraction, over the exit-lane blockers, of the other cells in the blocker's own lane
+    // that are taken; 0 with no blockers.
+    public double getLaneCongestion() {
+        return laneCongestion;
+    }
+
+    // SolvabilityAnalyzer's upper bound on reachable placements; saturates at Long.MAX_VALUE.
+    public long getEstimatedStates() {
+        return estimatedStates;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%dx%d, %d vehicles, %d blocker%s, congestion %.2f, <= %.1e states",
+                width, height, vehicles, exitLaneBlockers, exitLaneBlockers == 1 ? "" : "s", laneCongestion,
+                (double) estimatedStates);
+    }
+}
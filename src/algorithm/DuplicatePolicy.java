@@ -0,0 +1,12 @@
+package algorithm;
+
+public enum DuplicatePolicy {
+    // A board is recorded when first generated and never queued again (greedy search).
+    // The record lives in a bounded transposition table, so forgotten boards may come back.
+    DETECT_ON_GENERATE,
+    // Cheapest known cost per board; a board is expanded at most once (UCS, A*).
+    DETECT_ON_EXPAND,
+    // Like DETECT_ON_EXPAND, but an expanded board reached again more cheaply is expanded again.
+    // Needed for optimal results with heuristics that are admissible but not consistent.
+    REOPEN
+}
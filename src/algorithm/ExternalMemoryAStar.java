@@ -0,0 +1,596 @@
+package algorithm;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import model.*;
+
+// A* (or UCS when no heuristic is given) whose open list is split into f-buckets.
+// Buckets near the current minimum f stay in memory; once more than hotStateLimit
+// states are held, the coldest buckets are sorted and written out as run files.
+// The minimum bucket is expanded in rounds: its runs are streamed back through a
+// k-way merge that drops duplicates, and children with the same f go into a fresh
+// bucket under that f, which is counted and spilled like any other and merged in
+// the next round. Duplicates against the closed set are also only detected at the
+// merge. The closed set lives in a file and is looked up through an in-memory table
+// of 64-bit fingerprints; hits are confirmed a batch at a time in file order.
+public class ExternalMemoryAStar implements Pathfinder {
+    private static final int DEFAULT_HOT_STATE_LIMIT = 1_000_000;
+    private static final int CLOSED_BATCH = 4096;
+    private static final int RUN_BUFFER_BYTES = 1 << 16;
+
+    private int nodesVisited;
+    private List<State> solutionStates;
+    private Heuristic heuristic;
+    private int hotStateLimit;
+    private Path spillDirectory;
+    private int spilledRuns;
+    private long spilledStates;
+
+    private Board initialBoard;
+    private char[] pieceIds;
+    private int stateBytes;
+    private int recordSize;
+
+    public ExternalMemoryAStar(Heuristic heuristic) {
+        this(heuristic, DEFAULT_HOT_STATE_LIMIT, null);
+    }
+
+    public ExternalMemoryAStar(Heuristic heuristic, int hotStateLimit, Path spillDirectory) {
+        this.nodesVisited = 0;
+        this.solutionStates = new ArrayList<>();
+        this.heuristic = heuristic;
+        this.hotStateLimit = hotStateLimit;
+        this.spillDirectory = spillDirectory;
+    }
+
+    @Override
+    public List<Move> findPath(Board initialBoard) {
+        nodesVisited = 0;
+        spilledRuns = 0;
+        spilledStates = 0;
+        solutionStates.clear();
+        if (SolvabilityAnalyzer.analyze(initialBoard).isProvablyUnsolvable()) {
+            return new ArrayList<>();
+        }
+
+        this.initialBoard = initialBoard;
+        pieceIds = new char[initialBoard.getPieces().size()];
+        int n = 0;
+        for (char id : new TreeSet<>(initialBoard.getPieces().keySet())) {
+            pieceIds[n++] = id;
+        }
+        stateBytes = 2 * pieceIds.length;
+        recordSize = stateBytes + 16;
+
+        Path workDir = null;
+        try {
+            workDir = spillDirectory != null
+                    ? Files.createTempDirectory(spillDirectory, "rushhour-frontier")
+                    : Files.createTempDirectory("rushhour-frontier");
+            try (ClosedStore closed = new ClosedStore(workDir.resolve("closed.bin"))) {
+                return search(workDir, closed);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("External frontier I/O failed", e);
+        } finally {
+            deleteQuietly(workDir);
+        }
+    }
+
+    private List<Move> search(Path workDir, ClosedStore closed) throws IOException {
+        TreeMap<Integer, Bucket> buckets = new TreeMap<>();
+        int hotStates = 0;
+
+        byte[] start = newRecord(encode(initialBoard), 0, -1, -1, 0);
+        bucketFor(buckets, priority(initialBoard, 0)).hot.add(start);
+        hotStates++;
+
+        List<byte[]> batch = new ArrayList<>(CLOSED_BATCH);
+        while (!buckets.isEmpty()) {
+            Map.Entry<Integer, Bucket> lowest = buckets.pollFirstEntry();
+            int currentF = lowest.getKey();
+            Bucket bucket = lowest.getValue();
+            hotStates -= bucket.hot.size();
+
+            try (MergedRuns merged = bucket.merge(this)) {
+                while (merged.hasNext()) {
+                    batch.clear();
+                    while (batch.size() < CLOSED_BATCH && merged.hasNext()) {
+                        batch.add(merged.next());
+                    }
+                    boolean[] alreadyClosed = closed.containsAll(batch);
+
+                    for (int i = 0; i < batch.size(); i++) {
+                        if (alreadyClosed[i]) {
+                            continue;
+                        }
+                        byte[] record = batch.get(i);
+                        long index = closed.add(record);
+                        nodesVisited++;
+
+                        Board board = decode(record);
+                        int g = ByteBuffer.wrap(record, stateBytes, 4).getInt();
+                        if (board.canPrimaryPieceExit()) {
+                            return reconstructPath(closed, index);
+                        }
+
+                        for (Move move : MoveGenerator.generateMoves(board, moveMade(record))) {
+                            Board nextBoard = MoveGenerator.applyMove(board, move);
+                            int nextCost = g + move.getSteps();
+                            byte[] child = newRecord(encode(nextBoard), nextCost, index, pieceIndex(move.getPieceId()), delta(move));
+                            // An inconsistent heuristic can drop below the current bucket; keep it in this one instead.
+                            int f = Math.max(currentF, priority(nextBoard, nextCost));
+                            bucketFor(buckets, f).hot.add(child);
+                            hotStates++;
+                        }
+
+                        while (hotStates > hotStateLimit) {
+                            Bucket coldest = coldestHotBucket(buckets);
+                            if (coldest == null) {
+                                break;
+                            }
+                            hotStates -= coldest.hot.size();
+                            coldest.spill(this, workDir);
+                        }
+                    }
+                }
+            }
+            bucket.deleteRuns();
+        }
+
+        return new ArrayList<>();
+    }
+
+    private Bucket coldestHotBucket(TreeMap<Integer, Bucket> buckets) {
+        for (Bucket bucket : buckets.descendingMap().values()) {
+            if (!bucket.hot.isEmpty()) {
+                return bucket;
+            }
+        }
+        return null;
+    }
+
+    private static Bucket bucketFor(TreeMap<Integer, Bucket> buckets, int f) {
+        return buckets.computeIfAbsent(f, key -> new Bucket());
+    }
+
+    private int priority(Board board, int cost) {
+        return heuristic == null ? cost : cost + heuristic.calculate(new State(board, null, null, cost));
+    }
+
+    private byte[] encode(Board board) {
+        byte[] state = new byte[stateBytes];
+        Map<Character, Piece> pieces = board.getPieces();
+        for (int i = 0; i < pieceIds.length; i++) {
+            Piece piece = pieces.get(pieceIds[i]);
+            int offset = piece.isHorizontal() ? piece.getCol() : piece.getRow();
+            state[2 * i] = (byte) (offset >> 8);
+            state[2 * i + 1] = (byte) offset;
+        }
+        return state;
+    }
+
+    private Board decode(byte[] record) {
+        Board board = initialBoard.copy();
+        Map<Character, Piece> pieces = board.getPieces();
+        for (int i = 0; i < pieceIds.length; i++) {
+            Piece piece = pieces.get(pieceIds[i]);
+            int offset = ((record[2 * i] & 0xFF) << 8) | (record[2 * i + 1] & 0xFF);
+            if (piece.isHorizontal()) {
+                board.placePiece(pieceIds[i], piece.getRow(), offset);
+            } else {
+                board.placePiece(pieceIds[i], offset, piece.getCol());
+            }
+        }
+        return board;
+    }
+
+    // Record layout: piece offsets | g (int) | parent closed index (long) | moved piece (short) | delta (short)
+    private byte[] newRecord(byte[] state, int g, long parent, int piece, int delta) {
+        byte[] record = new byte[recordSize];
+        System.arraycopy(state, 0, record, 0, stateBytes);
+        ByteBuffer.wrap(record, stateBytes, 16).putInt(g).putLong(parent).putShort((short) piece).putShort((short) delta);
+        return record;
+    }
+
+    private int pieceIndex(char id) {
+        return Arrays.binarySearch(pieceIds, id);
+    }
+
+    private static int delta(Move move) {
+        String direction = move.getDirection();
+        return direction.equals("right") || direction.equals("down") ? move.getSteps() : -move.getSteps();
+    }
+
+    private int compareRecords(byte[] a, byte[] b) {
+        int cmp = Arrays.compareUnsigned(a, 0, stateBytes, b, 0, stateBytes);
+        if (cmp != 0) {
+            return cmp;
+        }
+        return Integer.compare(ByteBuffer.wrap(a, stateBytes, 4).getInt(), ByteBuffer.wrap(b, stateBytes, 4).getInt());
+    }
+
+    private List<Move> reconstructPath(ClosedStore closed, long goalIndex) throws IOException {
+        List<Move> path = new ArrayList<>();
+        long index = goalIndex;
+        while (true) {
+            ByteBuffer record = ByteBuffer.wrap(closed.read(index));
+            record.position(stateBytes + 4);
+            long parent = record.getLong();
+            if (parent < 0) {
+                break;
+            }
+            path.add(moveMade(record.array()));
+            index = parent;
+        }
+        Collections.reverse(path);
+
+        List<State> statePath = new ArrayList<>();
+        State current = new State(initialBoard, null, null, 0);
+        statePath.add(current);
+        for (Move move : path) {
+            Board next = current.getBoard().copy();
+            next.movePiece(move.getPieceId(), move.getDirection(), move.getSteps());
+            current = new State(next, current, move, current.getCost() + move.getSteps());
+            statePath.add(current);
+        }
+        this.solutionStates = statePath;
+
+        return path;
+    }
+
+    // The move that produced a record's state, or null for the initial state.
+    private Move moveMade(byte[] record) {
+        ByteBuffer fields = ByteBuffer.wrap(record, stateBytes + 12, 4);
+        int piece = fields.getShort();
+        int delta = fields.getShort();
+        if (piece < 0) {
+            return null;
+        }
+        Piece moved = initialBoard.getPieces().get(pieceIds[piece]);
+        String direction = moved.isHorizontal() ? (delta > 0 ? "right" : "left") : (delta > 0 ? "down" : "up");
+        return new Move(pieceIds[piece], moved.getLabel(), direction, Math.abs(delta));
+    }
+
+    private static void deleteQuietly(Path dir) {
+        if (dir == null) {
+            return;
+        }
+        try (var files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(dir);
+        } catch (IOException e) {
+            // Leftover temp files are not worth failing a finished search over.
+        }
+    }
+
+    public int getSpilledRuns() {
+        return spilledRuns;
+    }
+
+    public long getSpilledStates() {
+        return spilledStates;
+    }
+
+    @Override
+    public int getNodesVisited() {
+        return nodesVisited;
+    }
+
+    @Override
+    public List<State> getSolutionStates() {
+        return solutionStates;
+    }
+
+    private static class Bucket {
+        private List<byte[]> hot = new ArrayList<>();
+        private List<Path> runs = new ArrayList<>();
+
+        void spill(ExternalMemoryAStar search, Path workDir) throws IOException {
+            hot.sort(search::compareRecords);
+            Path run = workDir.resolve("run-" + search.spilledRuns + ".bin");
+            try (FileChannel channel = FileChannel.open(run, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.allocate(Math.max(search.recordSize, 1 << 16));
+                for (byte[] record : hot) {
+                    if (buffer.remaining() < record.length) {
+                        buffer.flip();
+                        while (buffer.hasRemaining()) {
+                            channel.write(buffer);
+                        }
+                        buffer.clear();
+                    }
+                    buffer.put(record);
+                }
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            search.spilledRuns++;
+            search.spilledStates += hot.size();
+            runs.add(run);
+            hot = new ArrayList<>();
+        }
+
+        // Streams a k-way merge of the sorted runs and the in-memory part. Runs are read
+        // through small buffers, so only one record per run is held at a time.
+        MergedRuns merge(ExternalMemoryAStar search) throws IOException {
+            hot.sort(search::compareRecords);
+            MergedRuns merged = new MergedRuns(search);
+            try {
+                merged.addSource(hot.iterator());
+                for (Path run : runs) {
+                    RunReader reader = new RunReader(run, search.recordSize);
+                    merged.readers.add(reader);
+                    merged.addSource(reader);
+                }
+            } catch (IOException | RuntimeException e) {
+                merged.close();
+                throw e;
+            }
+            hot = new ArrayList<>();
+            return merged;
+        }
+
+        void deleteRuns() throws IOException {
+            for (Path run : runs) {
+                Files.deleteIfExists(run);
+            }
+            runs.clear();
+        }
+    }
+
+    // Yields each state of a bucket once, as its cheapest copy: records are sorted by
+    // state and then by g, so later copies of a state are dropped.
+    private static class MergedRuns implements Iterator<byte[]>, AutoCloseable {
+        private final int stateBytes;
+        private final PriorityQueue<RunCursor> heads;
+        private final List<RunReader> readers = new ArrayList<>();
+        private byte[] previous;
+        private byte[] pending;
+
+        MergedRuns(ExternalMemoryAStar search) {
+            this.stateBytes = search.stateBytes;
+            this.heads = new PriorityQueue<>((a, b) -> search.compareRecords(a.head, b.head));
+        }
+
+        void addSource(Iterator<byte[]> source) {
+            if (source.hasNext()) {
+                heads.add(new RunCursor(source.next(), source));
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (pending == null && !heads.isEmpty()) {
+                RunCursor cursor = heads.poll();
+                byte[] record = cursor.head;
+                addSource(cursor.source);
+
+                boolean duplicate = previous != null
+                        && Arrays.equals(previous, 0, stateBytes, record, 0, stateBytes);
+                previous = record;
+                if (!duplicate) {
+                    pending = record;
+                }
+            }
+            return pending != null;
+        }
+
+        @Override
+        public byte[] next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            byte[] record = pending;
+            pending = null;
+            return record;
+        }
+
+        @Override
+        public void close() throws IOException {
+            IOException failure = null;
+            for (RunReader reader : readers) {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+            readers.clear();
+            heads.clear();
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    // Reads a run file sequentially through a heap buffer. Runs are not memory-mapped:
+    // a mapping outlives its channel, and on Windows that stops the file from being deleted.
+    private static class RunReader implements Iterator<byte[]>, AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private final int recordSize;
+
+        RunReader(Path run, int recordSize) throws IOException {
+            this.channel = FileChannel.open(run, StandardOpenOption.READ);
+            this.recordSize = recordSize;
+            this.buffer = ByteBuffer.allocate(Math.max(1, RUN_BUFFER_BYTES / recordSize) * recordSize);
+            buffer.flip();
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (buffer.remaining() >= recordSize) {
+                return true;
+            }
+            try {
+                buffer.compact();
+                int read;
+                do {
+                    read = channel.read(buffer);
+                } while (read > 0 && buffer.hasRemaining());
+                buffer.flip();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Reading frontier run failed", e);
+            }
+            return buffer.remaining() >= recordSize;
+        }
+
+        @Override
+        public byte[] next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            byte[] record = new byte[recordSize];
+            buffer.get(record);
+            return record;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    private static class RunCursor {
+        private final byte[] head;
+        private final Iterator<byte[]> source;
+
+        RunCursor(byte[] head, Iterator<byte[]> source) {
+            this.head = head;
+            this.source = source;
+        }
+    }
+
+    // Append-only file of expanded records plus an open-addressing table of state
+    // fingerprints; a fingerprint hit is confirmed against the stored record.
+    private class ClosedStore implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer writeBuffer;
+        private long flushedRecords;
+        private long count;
+        private long[] fingerprints = new long[1 << 12];
+        private long[] indices = new long[1 << 12];
+
+        ClosedStore(Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            writeBuffer = ByteBuffer.allocate(recordSize * 4096);
+        }
+
+        // Checks a batch of states at once. Fingerprint hits are collected first and then
+        // confirmed against the stored records in file order, so the reads run forward
+        // through the file instead of jumping to it once per state.
+        boolean[] containsAll(List<byte[]> states) throws IOException {
+            boolean[] found = new boolean[states.size()];
+            long[] hits = new long[16];
+            int hitCount = 0;
+            int mask = fingerprints.length - 1;
+            for (int i = 0; i < states.size(); i++) {
+                long fingerprint = fingerprint(states.get(i));
+                for (int slot = (int) fingerprint & mask; indices[slot] != 0; slot = (slot + 1) & mask) {
+                    if (fingerprints[slot] == fingerprint) {
+                        if (hitCount == hits.length) {
+                            hits = Arrays.copyOf(hits, hitCount * 2);
+                        }
+                        // Closed index in the high bits, batch position in the low 16.
+                        hits[hitCount++] = ((indices[slot] - 1) << 16) | i;
+                    }
+                }
+            }
+
+            Arrays.sort(hits, 0, hitCount);
+            for (int h = 0; h < hitCount; h++) {
+                int position = (int) (hits[h] & 0xFFFF);
+                if (!found[position]) {
+                    byte[] stored = read(hits[h] >>> 16);
+                    found[position] = Arrays.equals(stored, 0, stateBytes, states.get(position), 0, stateBytes);
+                }
+            }
+            return found;
+        }
+
+        long add(byte[] record) throws IOException {
+            if (writeBuffer.remaining() < recordSize) {
+                flush();
+            }
+            writeBuffer.put(record, 0, recordSize);
+            long index = count++;
+
+            if (count * 2 > fingerprints.length) {
+                resize();
+            }
+            insert(fingerprint(record), index);
+            return index;
+        }
+
+        byte[] read(long index) throws IOException {
+            byte[] record = new byte[recordSize];
+            if (index >= flushedRecords) {
+                int offset = (int) ((index - flushedRecords) * recordSize);
+                System.arraycopy(writeBuffer.array(), offset, record, 0, recordSize);
+            } else {
+                ByteBuffer target = ByteBuffer.wrap(record);
+                long position = index * recordSize;
+                while (target.hasRemaining()) {
+                    position += channel.read(target, position);
+                }
+            }
+            return record;
+        }
+
+        private void flush() throws IOException {
+            writeBuffer.flip();
+            long base = flushedRecords * recordSize;
+            while (writeBuffer.hasRemaining()) {
+                channel.write(writeBuffer, base + writeBuffer.position());
+            }
+            flushedRecords = count;
+            writeBuffer.clear();
+        }
+
+        private void insert(long fingerprint, long index) {
+            int mask = fingerprints.length - 1;
+            int slot = (int) fingerprint & mask;
+            while (indices[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            fingerprints[slot] = fingerprint;
+            indices[slot] = index + 1;
+        }
+
+        private void resize() {
+            long[] oldFingerprints = fingerprints;
+            long[] oldIndices = indices;
+            fingerprints = new long[oldFingerprints.length * 2];
+            indices = new long[oldIndices.length * 2];
+            for (int i = 0; i < oldIndices.length; i++) {
+                if (oldIndices[i] != 0) {
+                    insert(oldFingerprints[i], oldIndices[i] - 1);
+                }
+            }
+        }
+
+        private long fingerprint(byte[] state) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < stateBytes; i++) {
+                hash ^= state[i] & 0xFF;
+                hash *= 0x100000001b3L;
+            }
+            return hash ^ (hash >>> 29);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
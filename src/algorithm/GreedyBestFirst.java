@@ -1,139 +1,18 @@
 package algorithm;
 
-import java.util.*;
-import model.*;
-
-public class GreedyBestFirst implements Pathfinder {
-    private int nodesVisited;
-    private List<State> solutionStates;
-    private Heuristic heuristic;
+public class GreedyBestFirst extends BestFirstSearch {
     
     public GreedyBestFirst(Heuristic heuristic) {
-        this.nodesVisited = 0;
-        this.solutionStates = new ArrayList<>();
-        this.heuristic = heuristic;
-    }
-    
-    @Override
-   public List<Move> findPath(Board initialBoard) {
-        nodesVisited = 0;
-        solutionStates.clear();
-        
-        State initialState = new State(initialBoard, null, null, 0);
-        
-        PriorityQueue<State> frontier = new PriorityQueue<>(
-            Comparator.comparingInt(state -> heuristic.calculate(state))
-        );
-        frontier.add(initialState);
-        Set<String> explored = new HashSet<>();
-        
-        while (!frontier.isEmpty()) {
-            State currentState = frontier.poll();
-            nodesVisited++;
-            
-            String boardRepresentation = currentState.getBoard().toString();
-            explored.add(boardRepresentation);
-            
-            if (currentState.getBoard().canPrimaryPieceExit()) {
-                return reconstructPath(currentState);
-            }
-            List<Move> possibleMoves = generatePossibleMoves(currentState.getBoard());
-            
-            for (Move move : possibleMoves) {
-                Board newBoard = applyMove(currentState.getBoard(), move);
-                String newBoardRepresentation = newBoard.toString();
-                
-                if (!explored.contains(newBoardRepresentation)) {
-                    State newState = new State(newBoard, currentState, move, currentState.getCost() + move.getSteps());
-                    
-                    frontier.add(newState);
-                }
-            }
-        }
-    
-        return new ArrayList<>();
-    }
-    private List<Move> generatePossibleMoves(Board board) {
-        List<Move> possibleMoves = new ArrayList<>();
-        Map<Character, Piece> pieces = board.getPieces();
-        
-        for (Piece piece : pieces.values()) {
-            char id = piece.getId();
-            
-            if (piece.isHorizontal()) {
-                int maxRightSteps = getMaxStepsInDirection(board, piece, "right");
-                for (int steps = 1; steps <= maxRightSteps; steps++) {
-                    possibleMoves.add(new Move(id, "right", steps));
-                }
-                
-                int maxLeftSteps = getMaxStepsInDirection(board, piece, "left");
-                for (int steps = 1; steps <= maxLeftSteps; steps++) {
-                    possibleMoves.add(new Move(id, "left", steps));
-                }
-            } else {
-                int maxDownSteps = getMaxStepsInDirection(board, piece, "down");
-                for (int steps = 1; steps <= maxDownSteps; steps++) {
-                    possibleMoves.add(new Move(id, "down", steps));
-                }
-                
-                int maxUpSteps = getMaxStepsInDirection(board, piece, "up");
-                for (int steps = 1; steps <= maxUpSteps; steps++) {
-                    possibleMoves.add(new Move(id, "up", steps));
-                }
-            }
-        }
-        
-        return possibleMoves;
-    }
-    private int getMaxStepsInDirection(Board board, Piece piece, String direction) {
-        int steps = 0;
-        
-        Board tempBoard = board.copy();
-        
-        boolean canMove = true;
-        while (canMove) {
-            canMove = tempBoard.movePiece(piece.getId(), direction, 1);
-            if (canMove) {
-                steps++;
-            }
-        }
-        
-        return steps;
-    }
-    private Board applyMove(Board board, Move move) {
-        Board newBoard = board.copy();
-        
-        newBoard.movePiece(move.getPieceId(), move.getDirection(), move.getSteps());
-        
-        return newBoard;
+        this(heuristic, false);
     }
     
-    private List<Move> reconstructPath(State goalState) {
-        List<Move> path = new ArrayList<>();
-        List<State> statePath = new ArrayList<>();
-        
-        State current = goalState;
-        while (current.getParent() != null) {
-            path.add(0, current.getMoveMade()); 
-            statePath.add(0, current);
-            current = current.getParent();
-        }
-        
-        statePath.add(0, current);
-        
-        this.solutionStates = statePath;
-        
-        return path;
-    }
-
-    @Override
-    public int getNodesVisited() {
-        return nodesVisited;
+    public GreedyBestFirst(Heuristic heuristic, boolean canonicalizeStates) {
+        super(heuristic, PriorityPolicy.HEURISTIC, DuplicatePolicy.DETECT_ON_GENERATE, canonicalizeStates);
     }
     
-    @Override
-    public List<State> getSolutionStates() {
-        return solutionStates;
+    // States are recorded when generated, so a board already waiting in the frontier is not pushed twice.
+    // Once the table is full the clock policy forgets rarely-hit boards, which may then be expanded again.
+    public GreedyBestFirst(Heuristic heuristic, boolean canonicalizeStates, long memoryBudgetBytes) {
+        super(heuristic, PriorityPolicy.HEURISTIC, DuplicatePolicy.DETECT_ON_GENERATE, canonicalizeStates, memoryBudgetBytes);
     }
-    
 }
@@ -6,9 +6,19 @@ import model.State;
 
 public interface Heuristic {
     int calculate(State state);
+
+    // Short name used in events and reports.
+    default String name() {
+        return getClass().getSimpleName();
+    }
 }
 
 class DistanceHeuristic implements Heuristic {
+    @Override
+    public String name() {
+        return HeuristicFactory.nameForType(HeuristicFactory.DISTANCE_HEURISTIC);
+    }
+
     @Override
     public int calculate(State state) {
         Board board = state.getBoard();
@@ -34,6 +44,11 @@ class DistanceHeuristic implements Heuristic {
 }
 
 class BlockingVehiclesHeuristic implements Heuristic {
+    @Override
+    public String name() {
+        return HeuristicFactory.nameForType(HeuristicFactory.BLOCKING_VEHICLES_HEURISTIC);
+    }
+
     @Override
     public int calculate(State state) {
         Board board = state.getBoard();
@@ -98,6 +113,11 @@ class CombinedHeuristic implements Heuristic {
     private DistanceHeuristic distanceHeuristic = new DistanceHeuristic();
     private BlockingVehiclesHeuristic blockingHeuristic = new BlockingVehiclesHeuristic();
     
+    @Override
+    public String name() {
+        return HeuristicFactory.nameForType(HeuristicFactory.COMBINED_HEURISTIC);
+    }
+
     @Override
     public int calculate(State state) {
         int distance = distanceHeuristic.calculate(state);
@@ -1,5 +1,7 @@
 package algorithm;
 
+import java.util.Locale;
+
 public class HeuristicFactory { 
     public static final int DISTANCE_HEURISTIC = 1;
     public static final int BLOCKING_VEHICLES_HEURISTIC = 2;
@@ -17,4 +19,34 @@ public class HeuristicFactory {
                 return new CombinedHeuristic(); 
         }
     }
+
+    // Command-line name of a heuristic type, or -1 if the name is unknown.
+    public static int typeForName(String name) {
+        switch (name.toLowerCase(Locale.ROOT)) {
+            case "distance":
+                return DISTANCE_HEURISTIC;
+            case "blocking":
+                return BLOCKING_VEHICLES_HEURISTIC;
+            case "combined":
+                return COMBINED_HEURISTIC;
+            default:
+                return -1;
+        }
+    }
+
+    // Name of a heuristic, "none" for null.
+    public static String nameOf(Heuristic heuristic) {
+        return heuristic == null ? "none" : heuristic.name();
+    }
+
+    public static String nameForType(int type) {
+        switch (type) {
+            case DISTANCE_HEURISTIC:
+                return "distance";
+            case BLOCKING_VEHICLES_HEURISTIC:
+                return "blocking";
+            default:
+                return "combined";
+        }
+    }
 }
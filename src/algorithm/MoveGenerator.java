@@ -0,0 +1,213 @@
+package algorithm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import model.Board;
+import model.Move;
+import model.Piece;
+
+// Successor generation from lane occupancy bitmasks. How far a piece can slide depends only
+// on the other cells of its own row or column, so for short lanes the answer is precomputed
+// per (occupancy, offset, length) and shared by every solve; longer lanes use bit scans.
+public class MoveGenerator {
+    private static final int MAX_TABLE_LANE_LENGTH = 10;
+    private static final Map<Integer, int[]> TABLES = new ConcurrentHashMap<>();
+
+    public static List<Move> generateMoves(Board board) {
+        return generateMoves(board, null);
+    }
+
+    // Partial-order reduction against lastMove, the move that reached this board:
+    //  - the same piece is not moved again, since one slide from the previous board ends in
+    //    the same place for no more cost;
+    //  - a piece with a smaller id is not moved if its sweep (the cells it crosses) misses
+    //    lastMove's sweep, since the two moves commute and the smaller id goes first.
+    // The shorter or reordered sequence starts at the previous board, which was expanded on
+    // the way here. Replaying it there may meet the same rules again, but only for a strictly
+    // cheaper prefix or a larger piece id, so it ends. Searches that expand each board once
+    // along the path they found it by, with a consistent heuristic, still find a cheapest
+    // solution, and exhaustive searches still reach every board they would have.
+    public static List<Move> generateMoves(Board board, Move lastMove) {
+        int width = board.getWidth();
+        int height = board.getHeight();
+        long[] rowMasks = new long[height];
+        long[] colMasks = new long[width];
+        for (Piece piece : board.getPieces().values()) {
+            for (int i = 0; i < piece.getLength(); i++) {
+                int r = piece.isHorizontal() ? piece.getRow() : piece.getRow() + i;
+                int c = piece.isHorizontal() ? piece.getCol() + i : piece.getCol();
+                if (r >= 0 && r < height && c >= 0 && c < width) {
+                    rowMasks[r] |= 1L << c;
+                    colMasks[c] |= 1L << r;
+                }
+            }
+        }
+
+        char lastId = 0;
+        boolean lastHorizontal = false;
+        int lastLane = 0;
+        int lastLow = 0;
+        int lastHigh = 0;
+        if (lastMove != null) {
+            Piece moved = board.getPieces().get(lastMove.getPieceId());
+            lastId = moved.getId();
+            lastHorizontal = moved.isHorizontal();
+            lastLane = lastHorizontal ? moved.getRow() : moved.getCol();
+            int offset = lastHorizontal ? moved.getCol() : moved.getRow();
+            int from = lastMove.getDirection().equals("left") || lastMove.getDirection().equals("up")
+                    ? offset + lastMove.getSteps() : offset - lastMove.getSteps();
+            lastLow = Math.min(from, offset);
+            lastHigh = Math.max(from, offset) + moved.getLength() - 1;
+        }
+
+        List<Move> possibleMoves = new ArrayList<>();
+        for (Piece piece : board.getPieces().values()) {
+            if (piece.isFrozen() || (lastMove != null && piece.getId() == lastId)) {
+                continue;
+            }
+            char id = piece.getId();
+            String label = piece.getLabel();
+            int length = piece.getLength();
+            boolean mustMeet = lastMove != null && id < lastId;
+
+            if (piece.isHorizontal()) {
+                int row = piece.getRow();
+                int col = piece.getCol();
+                int range = overhangsExit(board, piece)
+                        ? probeRange(board, piece, col, "left", "right")
+                        : offsetRange(width, rowMasks[row] & ~laneBits(col, length), col, length);
+                for (int steps = 1; steps <= (range & 0xFFFF) - col; steps++) {
+                    if (!mustMeet || sweepsMeet(true, row, col, col + steps + length - 1, lastHorizontal, lastLane, lastLow, lastHigh)) {
+                        possibleMoves.add(new Move(id, label, "right", steps));
+                    }
+                }
+                for (int steps = 1; steps <= col - (range >>> 16); steps++) {
+                    if (!mustMeet || sweepsMeet(true, row, col - steps, col + length - 1, lastHorizontal, lastLane, lastLow, lastHigh)) {
+                        possibleMoves.add(new Move(id, label, "left", steps));
+                    }
+                }
+            } else {
+                int row = piece.getRow();
+                int col = piece.getCol();
+                int range = overhangsExit(board, piece)
+                        ? probeRange(board, piece, row, "up", "down")
+                        : offsetRange(height, colMasks[col] & ~laneBits(row, length), row, length);
+                for (int steps = 1; steps <= (range & 0xFFFF) - row; steps++) {
+                    if (!mustMeet || sweepsMeet(false, col, row, row + steps + length - 1, lastHorizontal, lastLane, lastLow, lastHigh)) {
+                        possibleMoves.add(new Move(id, label, "down", steps));
+                    }
+                }
+                for (int steps = 1; steps <= row - (range >>> 16); steps++) {
+                    if (!mustMeet || sweepsMeet(false, col, row - steps, row + length - 1, lastHorizontal, lastLane, lastLow, lastHigh)) {
+                        possibleMoves.add(new Move(id, label, "up", steps));
+                    }
+                }
+            }
+        }
+
+        return possibleMoves;
+    }
+
+    // Whether two sweeps share a cell. A sweep is the run of cells from low to high (inclusive)
+    // along a row (horizontal) or column, whose index is the lane.
+    static boolean sweepsMeet(boolean horizontalA, int laneA, int lowA, int highA,
+                              boolean horizontalB, int laneB, int lowB, int highB) {
+        if (horizontalA == horizontalB) {
+            return laneA == laneB && lowA <= highB && lowB <= highA;
+        }
+        return laneB >= lowA && laneB <= highA && laneA >= lowB && laneA <= highB;
+    }
+
+    // The move is assumed to come from generateMoves, so it is applied without re-validation.
+    public static Board applyMove(Board board, Move move) {
+        Board newBoard = board.copy();
+        Piece piece = newBoard.getPieces().get(move.getPieceId());
+        int row = piece.getRow();
+        int col = piece.getCol();
+
+        switch (move.getDirection()) {
+            case "up":
+                row -= move.getSteps();
+                break;
+            case "down":
+                row += move.getSteps();
+                break;
+            case "left":
+                col -= move.getSteps();
+                break;
+            case "right":
+                col += move.getSteps();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown direction: " + move.getDirection());
+        }
+
+        newBoard.placePiece(piece.getId(), row, col);
+        return newBoard;
+    }
+
+    // Lowest and highest reachable start offset, packed as (min << 16) | max.
+    static int offsetRange(int laneLength, long occupancy, int offset, int length) {
+        if (laneLength <= MAX_TABLE_LANE_LENGTH) {
+            int[] table = TABLES.computeIfAbsent(laneLength, MoveGenerator::buildTable);
+            return table[((int) occupancy * laneLength + offset) * (laneLength + 1) + length];
+        }
+        return computeRange(laneLength, occupancy, offset, length);
+    }
+
+    private static int[] buildTable(int laneLength) {
+        int[] table = new int[(1 << laneLength) * laneLength * (laneLength + 1)];
+        for (int occupancy = 0; occupancy < (1 << laneLength); occupancy++) {
+            for (int offset = 0; offset < laneLength; offset++) {
+                for (int length = 1; offset + length <= laneLength; length++) {
+                    table[(occupancy * laneLength + offset) * (laneLength + 1) + length] =
+                            computeRange(laneLength, occupancy, offset, length);
+                }
+            }
+        }
+        return table;
+    }
+
+    private static int computeRange(int laneLength, long occupancy, int offset, int length) {
+        long below = occupancy & ((1L << offset) - 1);
+        int min = below == 0 ? 0 : 64 - Long.numberOfLeadingZeros(below);
+
+        int end = offset + length;
+        long above = end >= 64 ? 0 : occupancy >>> end;
+        int max = above == 0 ? laneLength - length : offset + Long.numberOfTrailingZeros(above);
+
+        return (min << 16) | max;
+    }
+
+    private static long laneBits(int offset, int length) {
+        long bits = length >= 64 ? -1L : (1L << length) - 1;
+        return bits << offset;
+    }
+
+    // Board.movePiece lets the primary piece slide past the edge when the exit sits on the
+    // last row or column of its lane; the tables don't model that, so probe it directly.
+    private static boolean overhangsExit(Board board, Piece piece) {
+        if (!piece.isPrimary()) {
+            return false;
+        }
+        if (piece.isHorizontal()) {
+            return board.getExitCol() == board.getWidth() - 1 && board.getExitRow() == piece.getRow();
+        }
+        return board.getExitRow() == board.getHeight() - 1 && board.getExitCol() == piece.getCol();
+    }
+
+    private static int probeRange(Board board, Piece piece, int offset, String backward, String forward) {
+        return ((offset - probeSteps(board, piece, backward)) << 16) | (offset + probeSteps(board, piece, forward));
+    }
+
+    private static int probeSteps(Board board, Piece piece, String direction) {
+        int steps = 0;
+        Board tempBoard = board.copy();
+        while (tempBoard.movePiece(piece.getId(), direction, 1)) {
+            steps++;
+        }
+        return steps;
+    }
+}
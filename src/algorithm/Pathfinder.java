@@ -13,4 +13,14 @@ public interface Pathfinder {
     int getNodesVisited();
     
     List<State> getSolutionStates();
+
+    // Like findPath, but everything about the solve comes back in the result instead of being
+    // left on the pathfinder. This default runs one solve at a time per instance; searches that
+    // keep no per-solve fields override it so that one instance can serve many threads at once.
+    default SearchResult solve(Board initialBoard) {
+        synchronized (this) {
+            List<Move> path = findPath(initialBoard);
+            return new SearchResult(path, getSolutionStates(), getNodesVisited(), 0, 0, 0);
+        }
+    }
 }
@@ -0,0 +1,57 @@
+package algorithm;
+
+public class PathfinderFactory {
+    public static final int UCS = 0;
+    public static final int GREEDY_BEST_FIRST = 1;
+    public static final int A_STAR = 2;
+    public static final int EXTERNAL_MEMORY_A_STAR = 3;
+    public static final int BITSTATE = 4;
+    public static final int PORTFOLIO = 5;
+    public static final int PORTFOLIO_OPTIMAL = 6;
+    public static final int BEAM = 7;
+    public static final int AUTO = 8;
+
+    private static final String[] NAMES = {"ucs", "gbfs", "astar", "astar-disk", "bitstate", "portfolio", "portfolio-optimal", "beam", "auto"};
+
+    // Returns null for an unknown type. Symmetry reduction only applies to the in-memory searches.
+    // The portfolios race their own set of configurations and ignore the heuristic, as does the
+    // automatic search, which picks one from the board.
+    public static Pathfinder createPathfinder(int type, Heuristic heuristic, boolean canonicalizeStates) {
+        switch (type) {
+            case UCS:
+                return new UCS(canonicalizeStates);
+            case GREEDY_BEST_FIRST:
+                return new GreedyBestFirst(heuristic, canonicalizeStates);
+            case A_STAR:
+                return new AStar(heuristic, canonicalizeStates);
+            case EXTERNAL_MEMORY_A_STAR:
+                return new ExternalMemoryAStar(heuristic);
+            case BITSTATE:
+                return new BitstateSearch(heuristic);
+            case PORTFOLIO:
+                return new PortfolioSearch(PortfolioSearch.Optimality.ANY, canonicalizeStates);
+            case PORTFOLIO_OPTIMAL:
+                return new PortfolioSearch(PortfolioSearch.Optimality.OPTIMAL, canonicalizeStates);
+            case BEAM:
+                return new BeamSearch(heuristic, canonicalizeStates);
+            case AUTO:
+                return new AutoSearch(canonicalizeStates);
+            default:
+                return null;
+        }
+    }
+
+    // Short command-line name of an algorithm type, or -1 if the name is unknown.
+    public static int typeForName(String name) {
+        for (int i = 0; i < NAMES.length; i++) {
+            if (NAMES[i].equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public static String nameForType(int type) {
+        return NAMES[type];
+    }
+}
@@ -0,0 +1,216 @@
+package algorithm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import model.Board;
+import model.Move;
+import model.State;
+
+// Races several algorithm/heuristic pairs on their own threads and returns the first answer
+// good enough for the requested optimality; the others are then cancelled at their next
+// expansion. Each racer keeps its own tables, so a race uses as much memory as all of them.
+// Wins are tallied per configuration for the whole process, to show which defaults pay off.
+public class PortfolioSearch implements Pathfinder {
+    public enum Optimality {
+        // The first solution found, whatever its cost.
+        ANY,
+        // Only an answer from a search that guarantees a cheapest solution.
+        OPTIMAL
+    }
+
+    private static final Map<String, AtomicLong> WINS = new ConcurrentHashMap<>();
+
+    private final List<Config> configs;
+    private final Optimality optimality;
+    private final boolean canonicalizeStates;
+
+    private Config winner;
+    private Pathfinder winningSearch;
+    private long totalNodesVisited;
+
+    public PortfolioSearch(Optimality optimality, boolean canonicalizeStates) {
+        this(defaultConfigs(optimality), optimality, canonicalizeStates);
+    }
+
+    public PortfolioSearch(List<Config> configs, Optimality optimality, boolean canonicalizeStates) {
+        if (configs.isEmpty()) {
+            throw new IllegalArgumentException("A portfolio needs at least one configuration");
+        }
+        this.configs = new ArrayList<>(configs);
+        this.optimality = optimality;
+        this.canonicalizeStates = canonicalizeStates;
+    }
+
+    // Searches that cannot meet the optimality level would only take cores from those that can.
+    public static List<Config> defaultConfigs(Optimality optimality) {
+        List<Config> configs = new ArrayList<>();
+        configs.add(new Config(PathfinderFactory.UCS, 0));
+        configs.add(new Config(PathfinderFactory.A_STAR, HeuristicFactory.BLOCKING_VEHICLES_HEURISTIC));
+        configs.add(new Config(PathfinderFactory.A_STAR, HeuristicFactory.DISTANCE_HEURISTIC));
+        if (optimality == Optimality.ANY) {
+            configs.add(new Config(PathfinderFactory.GREEDY_BEST_FIRST, HeuristicFactory.BLOCKING_VEHICLES_HEURISTIC));
+            configs.add(new Config(PathfinderFactory.GREEDY_BEST_FIRST, HeuristicFactory.COMBINED_HEURISTIC));
+        }
+        return configs;
+    }
+
+    @Override
+    public List<Move> findPath(Board initialBoard) {
+        winner = null;
+        winningSearch = null;
+        totalNodesVisited = 0;
+
+        List<BestFirstSearch> searches = new ArrayList<>();
+        for (Config config : configs) {
+            searches.add(config.create(canonicalizeStates));
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(searches.size(), runnable -> {
+            Thread thread = new Thread(runnable, "portfolio");
+            thread.setDaemon(true);
+            return thread;
+        });
+        CompletionService<Integer> race = new ExecutorCompletionService<>(pool);
+
+        List<List<Move>> paths = new ArrayList<>();
+        for (int i = 0; i < searches.size(); i++) {
+            paths.add(null);
+        }
+        try {
+            for (int i = 0; i < searches.size(); i++) {
+                int index = i;
+                race.submit(() -> {
+                    paths.set(index, searches.get(index).findPath(initialBoard));
+                    return index;
+                });
+            }
+
+            // A solution from a search without the guarantee is kept in case no qualifying
+            // search finishes. An empty path from any finished search proves there is none,
+            // since every racer explores the whole reachable space before giving up.
+            int fallback = -1;
+            RuntimeException failure = null;
+            for (int remaining = searches.size(); remaining > 0; remaining--) {
+                int index;
+                try {
+                    index = race.take().get();
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = new RuntimeException("Portfolio search failed: " + e.getCause(), e.getCause());
+                    }
+                    continue;
+                }
+                List<Move> path = paths.get(index);
+                if (path.isEmpty() || optimality == Optimality.ANY || configs.get(index).isOptimal()) {
+                    return finish(searches, index, path);
+                }
+                if (fallback < 0) {
+                    fallback = index;
+                }
+            }
+            if (fallback >= 0) {
+                return finish(searches, fallback, paths.get(fallback));
+            }
+            throw failure;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ArrayList<>();
+        } finally {
+            for (BestFirstSearch search : searches) {
+                search.cancel();
+            }
+            pool.shutdown();
+        }
+    }
+
+    private List<Move> finish(List<BestFirstSearch> searches, int index, List<Move> path) {
+        winner = configs.get(index);
+        winningSearch = searches.get(index);
+        for (BestFirstSearch search : searches) {
+            totalNodesVisited += search.getNodesVisited();
+        }
+        WINS.computeIfAbsent(winner.toString(), name -> new AtomicLong()).incrementAndGet();
+        return path;
+    }
+
+    // The configuration whose answer the last findPath returned, or null.
+    public Config getWinner() {
+        return winner;
+    }
+
+    // Nodes expanded by every racer up to the moment the winner was chosen.
+    public long getTotalNodesVisited() {
+        return totalNodesVisited;
+    }
+
+    // Wins per configuration across all portfolio searches in this process, by name.
+    public static Map<String, Long> getWinCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        WINS.forEach((name, wins) -> counts.put(name, wins.get()));
+        return counts;
+    }
+
+    @Override
+    public int getNodesVisited() {
+        return winningSearch != null ? winningSearch.getNodesVisited() : 0;
+    }
+
+    @Override
+    public List<State> getSolutionStates() {
+        return winningSearch != null ? winningSearch.getSolutionStates() : new ArrayList<>();
+    }
+
+    // One entrant: an algorithm type from PathfinderFactory (UCS, GBFS or A*) and, where the
+    // algorithm uses one, a heuristic type from HeuristicFactory.
+    public static final class Config {
+        private final int algorithm;
+        private final int heuristic;
+
+        public Config(int algorithm, int heuristic) {
+            if (algorithm != PathfinderFactory.UCS && algorithm != PathfinderFactory.GREEDY_BEST_FIRST
+                    && algorithm != PathfinderFactory.A_STAR) {
+                throw new IllegalArgumentException("Only UCS, GBFS and A* can race in a portfolio");
+            }
+            this.algorithm = algorithm;
+            this.heuristic = algorithm == PathfinderFactory.UCS ? 0 : heuristic;
+        }
+
+        BestFirstSearch create(boolean canonicalizeStates) {
+            return (BestFirstSearch) PathfinderFactory.createPathfinder(algorithm,
+                    HeuristicFactory.createHeuristic(heuristic), canonicalizeStates);
+        }
+
+        // UCS always finds a cheapest solution. So does A* with a heuristic that never
+        // overestimates: each blocking vehicle needs at least one step, and the distance
+        // heuristic is the remaining distance plus a constant, which leaves A*'s order alone.
+        // The combined heuristic counts each blocker twice and can overestimate.
+        public boolean isOptimal() {
+            return algorithm == PathfinderFactory.UCS
+                    || (algorithm == PathfinderFactory.A_STAR && heuristic != HeuristicFactory.COMBINED_HEURISTIC);
+        }
+
+        public int getAlgorithm() {
+            return algorithm;
+        }
+
+        public int getHeuristic() {
+            return heuristic;
+        }
+
+        @Override
+        public String toString() {
+            if (algorithm == PathfinderFactory.UCS) {
+                return PathfinderFactory.nameForType(algorithm);
+            }
+            return PathfinderFactory.nameForType(algorithm) + "/" + HeuristicFactory.nameForType(heuristic);
+        }
+    }
+}
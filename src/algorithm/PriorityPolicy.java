@@ -0,0 +1,13 @@
+package algorithm;
+
+public interface PriorityPolicy {
+    PriorityPolicy COST = (cost, heuristicValue) -> cost;
+    PriorityPolicy HEURISTIC = (cost, heuristicValue) -> heuristicValue;
+    PriorityPolicy COST_PLUS_HEURISTIC = (cost, heuristicValue) -> cost + heuristicValue;
+
+    static PriorityPolicy weighted(double weight) {
+        return (cost, heuristicValue) -> (int) Math.min(Integer.MAX_VALUE, cost + Math.round(weight * heuristicValue));
+    }
+
+    int priority(int cost, int heuristicValue);
+}
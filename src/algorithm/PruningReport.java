@@ -0,0 +1,43 @@
+package algorithm;
+
+import java.util.List;
+import model.Board;
+
+public class PruningReport {
+    private final Board board;
+    private final List<String> frozenPieces;
+    private final long reachableStatesBefore;
+    private final long reachableStatesAfter;
+
+    public PruningReport(Board board, List<String> frozenPieces, long reachableStatesBefore, long reachableStatesAfter) {
+        this.board = board;
+        this.frozenPieces = frozenPieces;
+        this.reachableStatesBefore = reachableStatesBefore;
+        this.reachableStatesAfter = reachableStatesAfter;
+    }
+
+    // A copy of the input with the irrelevant pieces frozen; search this one.
+    public Board getBoard() {
+        return board;
+    }
+
+    public List<String> getFrozenPieces() {
+        return frozenPieces;
+    }
+
+    // Upper bounds from SolvabilityAnalyzer; both saturate at Long.MAX_VALUE.
+    public long getReachableStatesBefore() {
+        return reachableStatesBefore;
+    }
+
+    public long getReachableStatesAfter() {
+        return reachableStatesAfter;
+    }
+
+    @Override
+    public String toString() {
+        return "Pruned " + frozenPieces.size() + " vehicle" + (frozenPieces.size() == 1 ? "" : "s")
+                + (frozenPieces.isEmpty() ? "" : " " + frozenPieces)
+                + " (reachable states <= " + reachableStatesBefore + " -> " + reachableStatesAfter + ")";
+    }
+}
@@ -0,0 +1,55 @@
+package algorithm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import model.Board;
+import model.Piece;
+
+// Freezes vehicles that can never matter to the primary piece. Each piece sweeps the cells of
+// its lane between the lowest and highest offsets it could ever reach; the primary piece is
+// relevant, and so is any piece whose sweep meets a relevant piece's sweep. The rest never
+// share a cell with a relevant piece wherever they stand, so dropping their moves from any
+// solution leaves it legal and no more expensive. Frozen pieces stay on the board, so the
+// pruned board's solutions play unchanged on the original.
+public class RelevancePruner {
+
+    public static PruningReport prune(Board board) {
+        Board pruned = board.copy();
+        Piece primary = pruned.getPrimaryPiece();
+        if (primary == null) {
+            return new PruningReport(pruned, new ArrayList<>(), 0, 0);
+        }
+
+        Map<Character, int[]> spans = SolvabilityAnalyzer.reachableSpans(pruned);
+        List<Piece> relevant = new ArrayList<>();
+        List<Piece> undecided = new ArrayList<>();
+        for (Piece piece : pruned.getPieces().values()) {
+            (piece == primary ? relevant : undecided).add(piece);
+        }
+        for (int next = 0; next < relevant.size(); next++) {
+            Piece reached = relevant.get(next);
+            for (int i = undecided.size() - 1; i >= 0; i--) {
+                Piece piece = undecided.get(i);
+                if (sweepsMeet(reached, spans.get(reached.getId()), piece, spans.get(piece.getId()))) {
+                    relevant.add(piece);
+                    undecided.remove(i);
+                }
+            }
+        }
+
+        List<String> frozen = new ArrayList<>();
+        for (Piece piece : undecided) {
+            piece.setFrozen(true);
+            frozen.add(piece.getLabel());
+        }
+        return new PruningReport(pruned, frozen,
+                SolvabilityAnalyzer.analyze(board).getReachableStatesUpperBound(),
+                SolvabilityAnalyzer.analyze(pruned).getReachableStatesUpperBound());
+    }
+
+    private static boolean sweepsMeet(Piece a, int[] spanA, Piece b, int[] spanB) {
+        return MoveGenerator.sweepsMeet(a.isHorizontal(), a.isHorizontal() ? a.getRow() : a.getCol(), spanA[0], spanA[1] + a.getLength() - 1,
+                b.isHorizontal(), b.isHorizontal() ? b.getRow() : b.getCol(), spanB[0], spanB[1] + b.getLength() - 1);
+    }
+}
@@ -0,0 +1,121 @@
+package algorithm;
+
+import java.util.concurrent.atomic.LongAdder;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+// Time spent in each part of the best-first loop, summed over every solve in the process and
+// emitted once per period. Timing a phase takes two clock reads, far too many to record one
+// event each, so searches add their totals here when they finish and the periodic hook hands
+// out and resets the sums. Searches only time phases while a recording enables the event.
+@Name("rushhour.SearchPhases")
+@Label("Search Phases")
+@Category({"Rush Hour", "Search"})
+@Description("Time spent in each search phase since the previous event")
+@Enabled(false)
+@StackTrace(false)
+@Period("1 s")
+class SearchPhaseEvent extends Event {
+    private static final LongAdder SOLVES = new LongAdder();
+    private static final LongAdder EXPANSIONS = new LongAdder();
+    private static final LongAdder MOVE_GENERATION_NANOS = new LongAdder();
+    private static final LongAdder HASHING_NANOS = new LongAdder();
+    private static final LongAdder HEURISTIC_NANOS = new LongAdder();
+    private static final LongAdder OPEN_LIST_NANOS = new LongAdder();
+    private static final EventType TYPE;
+
+    static {
+        FlightRecorder.addPeriodicEvent(SearchPhaseEvent.class, SearchPhaseEvent::emit);
+        TYPE = EventType.getEventType(SearchPhaseEvent.class);
+    }
+
+    @Label("Solves")
+    long solves;
+
+    @Label("Expansions")
+    long expansions;
+
+    @Label("Move Generation")
+    @Description("Generating moves and building successor boards")
+    @Timespan
+    long moveGeneration;
+
+    @Label("Successor Hashing")
+    @Description("Building state keys and checking them against the duplicate tables")
+    @Timespan
+    long hashing;
+
+    @Label("Heuristic Evaluation")
+    @Timespan
+    long heuristic;
+
+    @Label("Open List")
+    @Description("Adding to and polling the frontier")
+    @Timespan
+    long openList;
+
+    private static void emit() {
+        SearchPhaseEvent event = new SearchPhaseEvent();
+        event.solves = SOLVES.sumThenReset();
+        event.expansions = EXPANSIONS.sumThenReset();
+        event.moveGeneration = MOVE_GENERATION_NANOS.sumThenReset();
+        event.hashing = HASHING_NANOS.sumThenReset();
+        event.heuristic = HEURISTIC_NANOS.sumThenReset();
+        event.openList = OPEN_LIST_NANOS.sumThenReset();
+        event.commit();
+    }
+
+    // Splits one solve's time between the phases: each lap charges the time since the previous
+    // lap (or skip) to a phase. A clock started while the event is off does nothing.
+    static final class Clock {
+        static final int MOVE_GENERATION = 0;
+        static final int HASHING = 1;
+        static final int HEURISTIC = 2;
+        static final int OPEN_LIST = 3;
+
+        private final boolean running;
+        private final long[] nanos = new long[4];
+        private long last;
+
+        Clock() {
+            // Loading the event class starts up JFR, so it waits until something else has.
+            running = FlightRecorder.isInitialized() && TYPE.isEnabled();
+            last = running ? System.nanoTime() : 0;
+        }
+
+        void lap(int phase) {
+            if (running) {
+                long now = System.nanoTime();
+                nanos[phase] += now - last;
+                last = now;
+            }
+        }
+
+        // Time since the last lap belongs to no phase.
+        void skip() {
+            if (running) {
+                last = System.nanoTime();
+            }
+        }
+
+        void finish(long expansions) {
+            if (running) {
+                SOLVES.increment();
+                EXPANSIONS.add(expansions);
+                MOVE_GENERATION_NANOS.add(nanos[MOVE_GENERATION]);
+                HASHING_NANOS.add(nanos[HASHING]);
+                HEURISTIC_NANOS.add(nanos[HEURISTIC]);
+                OPEN_LIST_NANOS.add(nanos[OPEN_LIST]);
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package algorithm;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import model.Move;
+import model.State;
+
+// Outcome of one solve, safe to hand to other threads. The lists cannot be modified, and the
+// states in them are no longer touched by the search that built them.
+public final class SearchResult {
+    private final List<Move> moves;
+    private final List<State> states;
+    private final int nodesVisited;
+    private final long nodesGenerated;
+    private final long evictions;
+    private final long reExpansions;
+
+    public SearchResult(List<Move> moves, List<State> states, int nodesVisited, long nodesGenerated,
+                        long evictions, long reExpansions) {
+        this.moves = Collections.unmodifiableList(new ArrayList<>(moves));
+        this.states = Collections.unmodifiableList(new ArrayList<>(states));
+        this.nodesVisited = nodesVisited;
+        this.nodesGenerated = nodesGenerated;
+        this.evictions = evictions;
+        this.reExpansions = reExpansions;
+    }
+
+    // Empty when no solution was found, and when the start board is already solved.
+    public List<Move> getMoves() {
+        return moves;
+    }
+
+    // Start state first, goal state last; empty when no solution was found.
+    public List<State> getStates() {
+        return states;
+    }
+
+    public int getCost() {
+        int cost = 0;
+        for (Move move : moves) {
+            cost += move.getSteps();
+        }
+        return cost;
+    }
+
+    public int getNodesVisited() {
+        return nodesVisited;
+    }
+
+    // Searches that do not count these report 0.
+    public long getNodesGenerated() {
+        return nodesGenerated;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public long getReExpansions() {
+        return reExpansions;
+    }
+}
@@ -0,0 +1,108 @@
+package algorithm;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+import model.Board;
+import model.Move;
+import model.Piece;
+import model.State;
+
+// Feed of expansion samples from a running search to an observer on another thread. The
+// solver writes into a fixed ring and publishes its position with an ordered store, never
+// waiting on the reader; a reader that falls more than a ring behind loses the oldest samples
+// and is told how many. Only one solver may write to a trace.
+public class SearchTrace {
+    private static final int DEFAULT_CAPACITY = 1 << 14;
+
+    public interface Listener {
+        // The expanded state's move slid a piece from one offset of its lane to another; the
+        // initial state reports length 0. priority is the state's queue priority.
+        void onExpansion(boolean horizontal, int lane, int fromOffset, int toOffset, int length,
+                         int priority, int frontierSize);
+    }
+
+    private final long[] moves;
+    private final long[] stats;
+    private final int mask;
+    private final AtomicLong written = new AtomicLong();
+    private long read;
+
+    private volatile State bestState;
+    private int bestHeuristic = Integer.MAX_VALUE;
+    private int bestCost = -1;
+
+    public SearchTrace() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public SearchTrace(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Trace capacity must be a power of two");
+        }
+        this.moves = new long[capacity];
+        this.stats = new long[capacity];
+        this.mask = capacity - 1;
+    }
+
+    // Solver side.
+    void recordExpansion(State state, int priority, int frontierSize) {
+        long move = 0;
+        Move made = state.getMoveMade();
+        if (made != null) {
+            Board board = state.getBoard();
+            Piece piece = board.getPieces().get(made.getPieceId());
+            boolean horizontal = piece.isHorizontal();
+            int to = horizontal ? piece.getCol() : piece.getRow();
+            int delta = made.getDirection().equals("left") || made.getDirection().equals("up") ? -made.getSteps() : made.getSteps();
+            int lane = horizontal ? piece.getRow() : piece.getCol();
+            move = ((long) ((to - delta) & 0xFFFF) << 48) | ((long) (to & 0xFFFF) << 32)
+                    | ((long) (lane & 0xFFFF) << 16) | ((piece.getLength() & 0x7FFF) << 1) | (horizontal ? 1 : 0);
+        }
+
+        long position = written.get();
+        int slot = (int) (position & mask);
+        moves[slot] = move;
+        stats[slot] = ((long) frontierSize << 32) | (priority & 0xFFFFFFFFL);
+        written.lazySet(position + 1);
+
+        // Closest to the goal by the heuristic; among equals, the one furthest along.
+        int heuristicValue = state.getHeuristicValue();
+        if (heuristicValue < bestHeuristic || (heuristicValue == bestHeuristic && state.getCost() > bestCost)) {
+            bestHeuristic = heuristicValue;
+            bestCost = state.getCost();
+            bestState = state;
+        }
+    }
+
+    // Observer side: hands every sample not yet seen to the listener and returns how many were
+    // overwritten before they could be read.
+    public long drain(Listener listener) {
+        long end = written.get();
+        long start = Math.max(read, end - moves.length);
+        long dropped = start - read;
+        for (long position = start; position < end; position++) {
+            int slot = (int) (position & mask);
+            long move = moves[slot];
+            long stat = stats[slot];
+            // The solver may have lapped this slot while it was being read.
+            VarHandle.loadLoadFence();
+            if (written.get() - position >= moves.length) {
+                dropped++;
+                continue;
+            }
+            listener.onExpansion((move & 1) != 0, (short) (move >>> 16), (short) (move >>> 48), (short) (move >>> 32),
+                    (int) ((move >>> 1) & 0x7FFF), (int) stat, (int) (stat >>> 32));
+        }
+        read = end;
+        return dropped;
+    }
+
+    public long getExpansions() {
+        return written.get();
+    }
+
+    // The most promising state expanded so far; its parent chain is the partial path.
+    public State getBestState() {
+        return bestState;
+    }
+}
@@ -0,0 +1,275 @@
+package algorithm;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import model.Board;
+import model.Piece;
+
+public class SolvabilityAnalyzer {
+    private static final int NOT_ALIGNED = Integer.MIN_VALUE;
+
+    private final Board board;
+    private final int width;
+    private final int height;
+    private final char[][] grid;
+    private final Map<Character, Piece> pieces;
+    private final Set<Character> fixed = new HashSet<>();
+
+    private SolvabilityAnalyzer(Board board) {
+        this.board = board;
+        this.width = board.getWidth();
+        this.height = board.getHeight();
+        this.pieces = board.getPieces();
+        this.grid = new char[height][width];
+        for (int r = 0; r < height; r++) {
+            for (int c = 0; c < width; c++) {
+                grid[r][c] = '.';
+            }
+        }
+        for (Piece piece : pieces.values()) {
+            for (int i = 0; i < piece.getLength(); i++) {
+                int r = piece.isHorizontal() ? piece.getRow() : piece.getRow() + i;
+                int c = piece.isHorizontal() ? piece.getCol() + i : piece.getCol();
+                if (r >= 0 && r < height && c >= 0 && c < width) {
+                    grid[r][c] = piece.getId();
+                }
+            }
+        }
+    }
+
+    public static SolvabilityReport analyze(Board board) {
+        return new SolvabilityAnalyzer(board).run();
+    }
+
+    private SolvabilityReport run() {
+        Piece primary = board.getPrimaryPiece();
+        if (primary == null) {
+            return new SolvabilityReport(true, "No primary piece (P) on the board", 0, 0);
+        }
+
+        findFixedPieces();
+        long bound = countReachableUpperBound();
+
+        if (board.canPrimaryPieceExit()) {
+            return new SolvabilityReport(false, null, bound, fixed.size());
+        }
+
+        int goal = goalOffset(primary);
+        if (goal == NOT_ALIGNED) {
+            return new SolvabilityReport(true, "Primary piece is not aligned with the exit", bound, fixed.size());
+        }
+
+        int start = laneStart(primary);
+        int from = Math.min(start, goal);
+        int to = Math.max(start, goal) + primary.getLength() - 1;
+        for (int i = from; i <= to; i++) {
+            char id = laneCell(primary, i);
+            if (id == '.' || id == primary.getId()) {
+                continue;
+            }
+            Piece blocker = pieces.get(id);
+            if (blocker.isHorizontal() == primary.isHorizontal()) {
+                return new SolvabilityReport(true, "Vehicle " + id + " shares the exit lane with the primary piece and can never leave it",
+                        bound, fixed.size());
+            }
+            if (fixed.contains(id)) {
+                return new SolvabilityReport(true, "Vehicle " + id + " is permanently pinned across the exit lane", bound, fixed.size());
+            }
+            int[] span = span(blocker);
+            int lane = laneIndex(primary);
+            boolean canClearBefore = span[0] + blocker.getLength() - 1 < lane;
+            boolean canClearAfter = span[1] > lane;
+            if (!canClearBefore && !canClearAfter) {
+                return new SolvabilityReport(true, "Vehicle " + id + " can never move clear of the exit lane", bound, fixed.size());
+            }
+        }
+
+        return new SolvabilityReport(false, null, bound, fixed.size());
+    }
+
+    // Largest set of pieces where every member is frozen or boxed in by walls or other members;
+    // none of them can ever make the first move.
+    private void findFixedPieces() {
+        fixed.addAll(pieces.keySet());
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            Iterator<Character> it = fixed.iterator();
+            while (it.hasNext()) {
+                Piece piece = pieces.get(it.next());
+                if (piece.isFrozen()) {
+                    continue;
+                }
+                int start = laneStart(piece);
+                if (!isBlocking(piece, start - 1) || !isBlocking(piece, start + piece.getLength())) {
+                    it.remove();
+                    changed = true;
+                }
+            }
+        }
+    }
+
+    private boolean isBlocking(Piece piece, int index) {
+        if (index < 0 || index >= laneLength(piece)) {
+            return true;
+        }
+        char id = laneCell(piece, index);
+        return id != '.' && fixed.contains(id);
+    }
+
+    // Range of start offsets the piece could ever reach: walls and fixed pieces stop it,
+    // and vehicles sharing its lane take up room it can never pass through.
+    private int[] span(Piece piece) {
+        int start = laneStart(piece);
+        if (fixed.contains(piece.getId())) {
+            return new int[] {start, start};
+        }
+
+        int low = start;
+        for (int i = start - 1; i >= 0; i--) {
+            char id = laneCell(piece, i);
+            if (id != '.' && fixed.contains(id)) {
+                break;
+            }
+            if (id == '.' || pieces.get(id).isHorizontal() != piece.isHorizontal()) {
+                low--;
+            }
+        }
+
+        int high = start;
+        for (int i = start + piece.getLength(); i < laneLength(piece); i++) {
+            char id = laneCell(piece, i);
+            if (id != '.' && fixed.contains(id)) {
+                break;
+            }
+            if (id == '.' || pieces.get(id).isHorizontal() != piece.isHorizontal()) {
+                high++;
+            }
+        }
+
+        return new int[] {low, high};
+    }
+
+    // Reachable start offsets of every piece, as from span().
+    static Map<Character, int[]> reachableSpans(Board board) {
+        SolvabilityAnalyzer analyzer = new SolvabilityAnalyzer(board);
+        analyzer.findFixedPieces();
+        Map<Character, int[]> spans = new HashMap<>();
+        for (Piece piece : analyzer.pieces.values()) {
+            spans.put(piece.getId(), analyzer.span(piece));
+        }
+        return spans;
+    }
+
+    private int goalOffset(Piece primary) {
+        int exitRow = board.getExitRow();
+        int exitCol = board.getExitCol();
+        int length = primary.getLength();
+
+        if (primary.isHorizontal()) {
+            if (exitRow != primary.getRow()) {
+                return NOT_ALIGNED;
+            }
+            if (exitCol >= width) {
+                return width - length;
+            } else if (exitCol == -1) {
+                return 0;
+            } else if (exitCol > primary.getCol() + length - 1) {
+                return exitCol - length;
+            }
+        } else {
+            if (exitCol != primary.getCol()) {
+                return NOT_ALIGNED;
+            }
+            if (exitRow >= height) {
+                return height - length;
+            } else if (exitRow == -1) {
+                return 0;
+            }
+        }
+        return NOT_ALIGNED;
+    }
+
+    // Each lane is split by fixed cells into segments; k movable parallel pieces of total
+    // length s in a segment of n cells can be arranged in C(n - s + k, k) ways.
+    private long countReachableUpperBound() {
+        long bound = 1;
+        for (int r = 0; r < height; r++) {
+            bound = saturatingMultiply(bound, countLaneArrangements(true, r, width));
+        }
+        for (int c = 0; c < width; c++) {
+            bound = saturatingMultiply(bound, countLaneArrangements(false, c, height));
+        }
+        return bound;
+    }
+
+    private long countLaneArrangements(boolean horizontal, int lane, int length) {
+        long arrangements = 1;
+        int segmentLength = 0;
+        int pieceCount = 0;
+        int pieceCells = 0;
+        char last = '.';
+
+        for (int i = 0; i <= length; i++) {
+            char id = i < length ? (horizontal ? grid[lane][i] : grid[i][lane]) : '.';
+            if (i == length || (id != '.' && fixed.contains(id))) {
+                arrangements = saturatingMultiply(arrangements,
+                        binomial(segmentLength - pieceCells + pieceCount, pieceCount));
+                segmentLength = 0;
+                pieceCount = 0;
+                pieceCells = 0;
+                last = '.';
+                continue;
+            }
+
+            segmentLength++;
+            if (id != '.' && pieces.get(id).isHorizontal() == horizontal) {
+                pieceCells++;
+                if (id != last) {
+                    pieceCount++;
+                }
+            }
+            last = id;
+        }
+        return arrangements;
+    }
+
+    private static long binomial(int n, int k) {
+        long result = 1;
+        for (int j = 1; j <= k; j++) {
+            result = saturatingMultiply(result, n - k + j);
+            if (result == Long.MAX_VALUE) {
+                return result;
+            }
+            result /= j;
+        }
+        return result;
+    }
+
+    private static long saturatingMultiply(long a, long b) {
+        try {
+            return Math.multiplyExact(a, b);
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private int laneIndex(Piece piece) {
+        return piece.isHorizontal() ? piece.getRow() : piece.getCol();
+    }
+
+    private int laneStart(Piece piece) {
+        return piece.isHorizontal() ? piece.getCol() : piece.getRow();
+    }
+
+    private int laneLength(Piece piece) {
+        return piece.isHorizontal() ? width : height;
+    }
+
+    private char laneCell(Piece piece, int index) {
+        return piece.isHorizontal() ? grid[piece.getRow()][index] : grid[index][piece.getCol()];
+    }
+}
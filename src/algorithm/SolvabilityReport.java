@@ -0,0 +1,38 @@
+package algorithm;
+
+public class SolvabilityReport {
+    private final boolean provablyUnsolvable;
+    private final String reason;
+    private final long reachableStatesUpperBound;
+    private final int fixedPieceCount;
+
+    public SolvabilityReport(boolean provablyUnsolvable, String reason, long reachableStatesUpperBound, int fixedPieceCount) {
+        this.provablyUnsolvable = provablyUnsolvable;
+        this.reason = reason;
+        this.reachableStatesUpperBound = reachableStatesUpperBound;
+        this.fixedPieceCount = fixedPieceCount;
+    }
+
+    public boolean isProvablyUnsolvable() {
+        return provablyUnsolvable;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    // Saturates at Long.MAX_VALUE for boards too large to count.
+    public long getReachableStatesUpperBound() {
+        return reachableStatesUpperBound;
+    }
+
+    public int getFixedPieceCount() {
+        return fixedPieceCount;
+    }
+
+    @Override
+    public String toString() {
+        return (provablyUnsolvable ? "Unsolvable: " + reason : "No obstruction found")
+                + " (reachable states <= " + reachableStatesUpperBound + ", fixed pieces: " + fixedPieceCount + ")";
+    }
+}
@@ -0,0 +1,49 @@
+package algorithm;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// One per UCS, GBFS or A* solve, spanning the whole search. Off unless a recording enables
+// rushhour.Solve; until then begin and commit do nothing.
+@Name("rushhour.Solve")
+@Label("Puzzle Solve")
+@Category({"Rush Hour", "Search"})
+@Description("A best-first search from start board to result")
+@Enabled(false)
+@StackTrace(false)
+class SolveEvent extends Event {
+    @Label("Algorithm")
+    String algorithm;
+
+    @Label("Heuristic")
+    String heuristic;
+
+    @Label("Board Width")
+    int boardWidth;
+
+    @Label("Board Height")
+    int boardHeight;
+
+    @Label("Vehicles")
+    int vehicles;
+
+    @Label("Solved")
+    boolean solved;
+
+    @Label("Moves")
+    int moves;
+
+    @Label("Cost")
+    int cost;
+
+    @Label("Nodes Visited")
+    int nodesVisited;
+
+    @Label("Nodes Generated")
+    long nodesGenerated;
+}
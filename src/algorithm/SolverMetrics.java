@@ -0,0 +1,305 @@
+package algorithm;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import model.Board;
+import model.Move;
+
+// Process-wide solver counters, published over JMX as rushhour:type=SolverMetrics. Callers
+// that want their solves counted go through solve or findPath here rather than calling the
+// pathfinder directly. Every counter is a LongAdder, so concurrent solves update separate
+// cells and never wait on each other; readers sum the cells, so a value read while solves are
+// finishing may be a few updates behind.
+//
+// Starting the platform MBean server takes about 300 ms, longer than a typical command-line
+// run, so the bean is registered as soon as this class loads only if a server is already up
+// (a JMX agent, or a host application that uses JMX). Otherwise publish registers it.
+public final class SolverMetrics implements SolverMetricsMXBean {
+    public static final String OBJECT_NAME = "rushhour:type=SolverMetrics";
+
+    // Latency bucket i counts solves under 2^i ms; the last one counts everything slower.
+    private static final int LATENCY_BUCKETS = 18;
+    private static final int WINDOW_SECONDS = 10;
+    private static final int WINDOW_SLOTS = 16;
+
+    private static final SolverMetrics INSTANCE = new SolverMetrics();
+    private static boolean published;
+
+    static {
+        if (!MBeanServerFactory.findMBeanServer(null).isEmpty()) {
+            publish();
+        }
+    }
+
+    private final LongAdder totalSolves = new LongAdder();
+    private final LongAdder activeSolves = new LongAdder();
+    private final LongAdder failedSolves = new LongAdder();
+    private final LongAdder unsolvedSolves = new LongAdder();
+    private final Map<String, LongAdder> solvesByAlgorithm = new ConcurrentHashMap<>();
+    private final LongAdder nodesVisited = new LongAdder();
+    private final LongAdder solveNanos = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder[] latency = new LongAdder[LATENCY_BUCKETS];
+
+    // Nodes credited per second of the monotonic clock, in a ring indexed by second. A slot
+    // is cleared by the first solve to finish in a new second; a solve racing that clear may
+    // lose its nodes from the rolling rate, but never from the totals.
+    private final LongAdder[] recentNodes = new LongAdder[WINDOW_SLOTS];
+    private final AtomicLongArray recentSeconds = new AtomicLongArray(WINDOW_SLOTS);
+
+    private SolverMetrics() {
+        for (int i = 0; i < LATENCY_BUCKETS; i++) {
+            latency[i] = new LongAdder();
+        }
+        for (int i = 0; i < WINDOW_SLOTS; i++) {
+            recentNodes[i] = new LongAdder();
+            recentSeconds.set(i, Long.MIN_VALUE);
+        }
+    }
+
+    // Registers the bean with the platform MBean server, starting it if need be; later calls
+    // do nothing. A second copy of these classes (another class loader) keeps counting but
+    // stays off JMX.
+    public static synchronized void publish() {
+        if (published) {
+            return;
+        }
+        published = true;
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+        } catch (JMException | SecurityException e) {
+            System.err.println("Solver metrics not published over JMX: " + e);
+        }
+    }
+
+    public static SolverMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    public static SearchResult solve(Pathfinder pathfinder, Board board) {
+        long start = INSTANCE.begin();
+        boolean finished = false;
+        try {
+            SearchResult result = pathfinder.solve(board);
+            INSTANCE.end(pathfinder, start, result.getNodesVisited(), !result.getMoves().isEmpty() || board.canPrimaryPieceExit());
+            finished = true;
+            return result;
+        } finally {
+            INSTANCE.leave(finished);
+        }
+    }
+
+    // For callers that still read the path and counters off the pathfinder itself.
+    public static List<Move> findPath(Pathfinder pathfinder, Board board) {
+        long start = INSTANCE.begin();
+        boolean finished = false;
+        try {
+            List<Move> path = pathfinder.findPath(board);
+            INSTANCE.end(pathfinder, start, pathfinder.getNodesVisited(), !path.isEmpty() || board.canPrimaryPieceExit());
+            finished = true;
+            return path;
+        } finally {
+            INSTANCE.leave(finished);
+        }
+    }
+
+    // Lookups in a result cache in front of the solver; a request that joins a solve already
+    // running for the same puzzle counts as a hit, since it starts no search of its own.
+    public static void recordCacheLookup(boolean hit) {
+        (hit ? INSTANCE.cacheHits : INSTANCE.cacheMisses).increment();
+    }
+
+    private long begin() {
+        activeSolves.increment();
+        return System.nanoTime();
+    }
+
+    private void end(Pathfinder pathfinder, long start, long nodes, boolean solved) {
+        long now = System.nanoTime();
+        long elapsed = now - start;
+        totalSolves.increment();
+        if (!solved) {
+            unsolvedSolves.increment();
+        }
+        solvesByAlgorithm.computeIfAbsent(pathfinder.getClass().getSimpleName(), name -> new LongAdder()).increment();
+        nodesVisited.add(nodes);
+        solveNanos.add(elapsed);
+        latency[latencyBucket(elapsed / 1_000_000)].increment();
+
+        long second = Math.floorDiv(now, 1_000_000_000L);
+        int slot = (int) Math.floorMod(second, (long) WINDOW_SLOTS);
+        long stamp = recentSeconds.get(slot);
+        if (stamp != second && recentSeconds.compareAndSet(slot, stamp, second)) {
+            recentNodes[slot].reset();
+        }
+        recentNodes[slot].add(nodes);
+    }
+
+    private void leave(boolean finished) {
+        activeSolves.decrement();
+        if (!finished) {
+            failedSolves.increment();
+        }
+    }
+
+    private static int latencyBucket(long millis) {
+        int bucket = 64 - Long.numberOfLeadingZeros(millis);
+        return Math.min(bucket, LATENCY_BUCKETS - 1);
+    }
+
+    @Override
+    public long getTotalSolves() {
+        return totalSolves.sum();
+    }
+
+    @Override
+    public long getActiveSolves() {
+        return activeSolves.sum();
+    }
+
+    // Solves that ended by throwing; they are not in the other counts.
+    @Override
+    public long getFailedSolves() {
+        return failedSolves.sum();
+    }
+
+    // Solves that finished without a solution.
+    @Override
+    public long getUnsolvedSolves() {
+        return unsolvedSolves.sum();
+    }
+
+    @Override
+    public Map<String, Long> getSolvesByAlgorithm() {
+        Map<String, Long> counts = new TreeMap<>();
+        solvesByAlgorithm.forEach((name, count) -> counts.put(name, count.sum()));
+        return counts;
+    }
+
+    @Override
+    public long getTotalNodesVisited() {
+        return nodesVisited.sum();
+    }
+
+    // Over the time spent inside solves, so concurrent solves don't inflate it.
+    @Override
+    public double getNodesPerSecond() {
+        long nanos = solveNanos.sum();
+        return nanos == 0 ? 0 : nodesVisited.sum() * 1e9 / nanos;
+    }
+
+    // Nodes of the solves that finished in the last WINDOW_SECONDS, per wall-clock second.
+    @Override
+    public double getRollingNodesPerSecond() {
+        long now = Math.floorDiv(System.nanoTime(), 1_000_000_000L);
+        long nodes = 0;
+        for (int i = 0; i < WINDOW_SLOTS; i++) {
+            long second = recentSeconds.get(i);
+            if (second > now - WINDOW_SECONDS && second <= now) {
+                nodes += recentNodes[i].sum();
+            }
+        }
+        return (double) nodes / WINDOW_SECONDS;
+    }
+
+    @Override
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    @Override
+    public long getCacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    @Override
+    public double getCacheHitRatio() {
+        long hits = cacheHits.sum();
+        long lookups = hits + cacheMisses.sum();
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    // Exclusive upper bound of each latency bucket; the last bucket has none.
+    @Override
+    public long[] getLatencyBucketBoundsMillis() {
+        long[] bounds = new long[LATENCY_BUCKETS - 1];
+        for (int i = 0; i < bounds.length; i++) {
+            bounds[i] = 1L << i;
+        }
+        return bounds;
+    }
+
+    @Override
+    public long[] getLatencyHistogram() {
+        long[] counts = new long[LATENCY_BUCKETS];
+        for (int i = 0; i < LATENCY_BUCKETS; i++) {
+            counts[i] = latency[i].sum();
+        }
+        return counts;
+    }
+
+    @Override
+    public long getLatencyP50Millis() {
+        return latencyPercentile(0.50);
+    }
+
+    @Override
+    public long getLatencyP90Millis() {
+        return latencyPercentile(0.90);
+    }
+
+    @Override
+    public long getLatencyP99Millis() {
+        return latencyPercentile(0.99);
+    }
+
+    // Upper bound of the bucket holding the percentile, so at most twice the true value;
+    // -1 when it falls in the open-ended last bucket, 0 before any solve.
+    private long latencyPercentile(double fraction) {
+        long[] counts = getLatencyHistogram();
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * fraction);
+        long seen = 0;
+        for (int i = 0; i < LATENCY_BUCKETS - 1; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return 1L << i;
+            }
+        }
+        return -1;
+    }
+
+    // Zeroes everything except the active count, which belongs to solves still running.
+    @Override
+    public void reset() {
+        totalSolves.reset();
+        failedSolves.reset();
+        unsolvedSolves.reset();
+        solvesByAlgorithm.clear();
+        nodesVisited.reset();
+        solveNanos.reset();
+        cacheHits.reset();
+        cacheMisses.reset();
+        for (LongAdder bucket : latency) {
+            bucket.reset();
+        }
+        for (LongAdder slot : recentNodes) {
+            slot.reset();
+        }
+    }
+}
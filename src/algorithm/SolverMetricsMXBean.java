@@ -0,0 +1,40 @@
+package algorithm;
+
+import java.util.Map;
+
+// Attributes of the rushhour:type=SolverMetrics bean; see SolverMetrics.
+public interface SolverMetricsMXBean {
+    long getTotalSolves();
+
+    long getActiveSolves();
+
+    long getFailedSolves();
+
+    long getUnsolvedSolves();
+
+    Map<String, Long> getSolvesByAlgorithm();
+
+    long getTotalNodesVisited();
+
+    double getNodesPerSecond();
+
+    double getRollingNodesPerSecond();
+
+    long getCacheHits();
+
+    long getCacheMisses();
+
+    double getCacheHitRatio();
+
+    long[] getLatencyBucketBoundsMillis();
+
+    long[] getLatencyHistogram();
+
+    long getLatencyP50Millis();
+
+    long getLatencyP90Millis();
+
+    long getLatencyP99Millis();
+
+    void reset();
+}
@@ -0,0 +1,80 @@
+package algorithm;
+
+import java.util.HashMap;
+import java.util.Map;
+import model.Board;
+import model.Piece;
+
+public class StateCanonicalizer {
+
+    // Key that ignores which letter each vehicle carries: non-primary pieces are relabelled
+    // in scan order, so boards that differ only by swapping same-shaped cars share a key.
+    // When the exit lane is the middle row (or column) the board is mirrored across it and
+    // the smaller of the two keys is used, since mirrored states are equally far from the goal.
+    public static String canonicalKey(Board board) {
+        int width = board.getWidth();
+        int height = board.getHeight();
+        char[][] grid = new char[height][width];
+        for (int r = 0; r < height; r++) {
+            for (int c = 0; c < width; c++) {
+                grid[r][c] = '.';
+            }
+        }
+        for (Piece piece : board.getPieces().values()) {
+            for (int i = 0; i < piece.getLength(); i++) {
+                int r = piece.isHorizontal() ? piece.getRow() : piece.getRow() + i;
+                int c = piece.isHorizontal() ? piece.getCol() + i : piece.getCol();
+                if (r >= 0 && r < height && c >= 0 && c < width) {
+                    grid[r][c] = piece.getId();
+                }
+            }
+        }
+
+        char primaryId = board.getPrimaryPieceId();
+        String key = relabel(grid, width, height, primaryId, false, false);
+
+        Piece primary = board.getPrimaryPiece();
+        if (primary != null) {
+            if (primary.isHorizontal() && board.getExitRow() == height - 1 - board.getExitRow()) {
+                String mirrored = relabel(grid, width, height, primaryId, true, false);
+                if (mirrored.compareTo(key) < 0) {
+                    key = mirrored;
+                }
+            } else if (!primary.isHorizontal() && board.getExitCol() == width - 1 - board.getExitCol()) {
+                String mirrored = relabel(grid, width, height, primaryId, false, true);
+                if (mirrored.compareTo(key) < 0) {
+                    key = mirrored;
+                }
+            }
+        }
+        return key;
+    }
+
+    private static String relabel(char[][] grid, int width, int height, char primaryId, boolean flipRows, boolean flipCols) {
+        Map<Character, Character> labels = new HashMap<>();
+        char nextLabel = 'A';
+        StringBuilder sb = new StringBuilder(width * height);
+
+        for (int r = 0; r < height; r++) {
+            for (int c = 0; c < width; c++) {
+                char id = grid[flipRows ? height - 1 - r : r][flipCols ? width - 1 - c : c];
+                if (id == '.') {
+                    sb.append('.');
+                } else if (id == primaryId) {
+                    sb.append('P');
+                } else {
+                    Character label = labels.get(id);
+                    if (label == null) {
+                        if (nextLabel == 'P') {
+                            nextLabel++;
+                        }
+                        label = nextLabel++;
+                        labels.put(id, label);
+                    }
+                    sb.append(label.charValue());
+                }
+            }
+        }
+        return sb.toString();
+    }
+}
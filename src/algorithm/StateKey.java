@@ -0,0 +1,66 @@
+package algorithm;
+
+import java.util.Arrays;
+import model.Board;
+
+// Identity of a search state in hash tables. Equality is decided on the 64-bit hash first;
+// the placement (or canonical string) is only compared when two hashes match. Keys keep
+// their own copy of the placement rather than the board, since transposition table
+// entries outlive the states they were made from.
+public class StateKey {
+    // Rough heap cost of the key object and of an array header.
+    private static final int KEY_BYTES = 32;
+    private static final int ARRAY_BYTES = 16;
+    private static final int STRING_BYTES = 40;
+
+    private final long hash;
+    private final byte[] placement;
+    private final String canonical;
+
+    private StateKey(long hash, byte[] placement, String canonical) {
+        this.hash = hash;
+        this.placement = placement;
+        this.canonical = canonical;
+    }
+
+    public static StateKey of(Board board) {
+        return new StateKey(board.getZobristHash(), board.getPlacement(), null);
+    }
+
+    // Symmetric boards have different placements, so the canonical string is both hashed
+    // and kept for verification; this costs O(area) per state, unlike of(Board).
+    public static StateKey canonical(Board board) {
+        String key = StateCanonicalizer.canonicalKey(board);
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash = (hash ^ key.charAt(i)) * 0x100000001b3L;
+        }
+        return new StateKey(hash, null, key);
+    }
+
+    public static int estimatedBytes(Board board, boolean canonical) {
+        return canonical ? KEY_BYTES + STRING_BYTES + board.getWidth() * board.getHeight() + board.getHeight()
+                : KEY_BYTES + ARRAY_BYTES + (board.getPieces().size() + 7) / 8 * 8;
+    }
+
+    public long getHash() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof StateKey)) return false;
+        StateKey other = (StateKey) obj;
+        if (hash != other.hash) {
+            return false;
+        }
+        return canonical != null ? canonical.equals(other.canonical)
+                : Arrays.equals(placement, other.placement);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(hash);
+    }
+}
@@ -0,0 +1,113 @@
+package algorithm;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+public class TranspositionTable<K> {
+    // Rough heap cost of one entry besides the key itself: HashMap node, boxed slot index
+    // and the slot arrays.
+    private static final int ENTRY_OVERHEAD_BYTES = 72;
+
+    private static final int INITIAL_SLOTS = 1024;
+
+    // Slot arrays grow on demand up to capacity, so a small search doesn't pay for its budget.
+    private final int capacity;
+    private Object[] keys;
+    private boolean[] referenced;
+    private final Map<K, Integer> slots;
+    private BitSet evictedKeys;
+    private int size;
+    private int hand;
+    private long evictions;
+    private long reinsertions;
+
+    public TranspositionTable(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Transposition table capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.keys = new Object[Math.min(capacity, INITIAL_SLOTS)];
+        this.referenced = new boolean[keys.length];
+        this.slots = new HashMap<>();
+    }
+
+    public static <K> TranspositionTable<K> forMemoryBudget(long budgetBytes, int keyBytes) {
+        long capacity = budgetBytes / (ENTRY_OVERHEAD_BYTES + keyBytes);
+        return new TranspositionTable<>((int) Math.max(1, Math.min(capacity, Integer.MAX_VALUE - 8)));
+    }
+
+    public boolean contains(K key) {
+        Integer slot = slots.get(key);
+        if (slot == null) {
+            return false;
+        }
+        referenced[slot] = true;
+        return true;
+    }
+
+    public void add(K key) {
+        if (contains(key)) {
+            return;
+        }
+
+        int slot;
+        if (size < capacity) {
+            if (size == keys.length) {
+                int grown = (int) Math.min(capacity, keys.length * 2L);
+                keys = Arrays.copyOf(keys, grown);
+                referenced = Arrays.copyOf(referenced, grown);
+            }
+            slot = size++;
+        } else {
+            if (evictedKeys == null) {
+                evictedKeys = new BitSet(Math.max(64, capacity) * 8);
+            }
+            slot = nextVictim();
+            slots.remove(keys[slot]);
+            evictedKeys.set(bucket(keys[slot]));
+            evictions++;
+        }
+
+        // Approximate: a set bit means this key (or one sharing its bucket) was evicted before.
+        if (evictions > 0 && evictedKeys.get(bucket(key))) {
+            reinsertions++;
+        }
+
+        keys[slot] = key;
+        referenced[slot] = false;
+        slots.put(key, slot);
+    }
+
+    // Clock sweep: referenced entries get a second chance, the first unreferenced one goes.
+    private int nextVictim() {
+        while (referenced[hand]) {
+            referenced[hand] = false;
+            hand = (hand + 1) % keys.length;
+        }
+        int victim = hand;
+        hand = (hand + 1) % keys.length;
+        return victim;
+    }
+
+    private int bucket(Object key) {
+        return Math.floorMod(key.hashCode() * 0x9E3779B9, evictedKeys.size());
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public long getReinsertions() {
+        return reinsertions;
+    }
+}
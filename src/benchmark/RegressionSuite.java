@@ -0,0 +1,266 @@
+package benchmark;
+
+import algorithm.HeuristicFactory;
+import algorithm.Pathfinder;
+import algorithm.PathfinderFactory;
+import algorithm.SearchResult;
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import model.Board;
+import utility.FileHandler;
+
+// Solves each puzzle with each algorithm/heuristic pair and compares nodes expanded, cost and
+// median time with a baseline file. Exits with 1 when a cost changed, when nodes grew by more
+// than the node tolerance, or when the median time grew by more than the time tolerance (and
+// by more than TIME_SLACK_MS, so that millisecond solves don't fail on scheduler noise).
+// Allocation is reported but never fails the run, as it moves with the JIT and GC.
+// Usage: java benchmark.RegressionSuite [--baseline FILE] [--update] [--warmup N] [--runs N]
+//        [--node-tolerance PCT] [--time-tolerance PCT] [puzzle files...]
+public class RegressionSuite {
+    private static final String[] DEFAULT_PUZZLES = {
+            "test/testing.txt", "test/testing2.txt", "test/testing3.txt", "test/testing4.txt"};
+    private static final String DEFAULT_BASELINE = "test/regression-baseline.csv";
+    private static final String HEADER = "puzzle,algorithm,heuristic,cost,nodes,alloc_bytes,median_ms";
+    private static final double TIME_SLACK_MS = 5.0;
+    // Times that look like a regression are measured again this many times, keeping the best
+    // median, before the run fails; a real slowdown survives that and noise rarely does.
+    private static final int TIME_RETRIES = 2;
+
+    // Every deterministic search; the portfolios depend on thread timing and the disk and
+    // bitstate searches measure the file system and hash luck more than the code.
+    private static final int[][] CONFIGS = {
+            {PathfinderFactory.UCS, 0},
+            {PathfinderFactory.GREEDY_BEST_FIRST, HeuristicFactory.DISTANCE_HEURISTIC},
+            {PathfinderFactory.GREEDY_BEST_FIRST, HeuristicFactory.BLOCKING_VEHICLES_HEURISTIC},
+            {PathfinderFactory.GREEDY_BEST_FIRST, HeuristicFactory.COMBINED_HEURISTIC},
+            {PathfinderFactory.A_STAR, HeuristicFactory.DISTANCE_HEURISTIC},
+            {PathfinderFactory.A_STAR, HeuristicFactory.BLOCKING_VEHICLES_HEURISTIC},
+            {PathfinderFactory.A_STAR, HeuristicFactory.COMBINED_HEURISTIC},
+            {PathfinderFactory.BEAM, HeuristicFactory.BLOCKING_VEHICLES_HEURISTIC},
+    };
+
+    public static void main(String[] args) throws IOException {
+        String baselinePath = DEFAULT_BASELINE;
+        boolean update = false;
+        int warmup = 20;
+        int runs = 15;
+        double nodeTolerance = 0;
+        double timeTolerance = 50;
+        List<String> puzzles = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--baseline":
+                    baselinePath = args[++i];
+                    break;
+                case "--update":
+                    update = true;
+                    break;
+                case "--warmup":
+                    warmup = Integer.parseInt(args[++i]);
+                    break;
+                case "--runs":
+                    runs = Integer.parseInt(args[++i]);
+                    break;
+                case "--node-tolerance":
+                    nodeTolerance = Double.parseDouble(args[++i]);
+                    break;
+                case "--time-tolerance":
+                    timeTolerance = Double.parseDouble(args[++i]);
+                    break;
+                default:
+                    puzzles.add(args[i]);
+            }
+        }
+        if (puzzles.isEmpty()) {
+            puzzles.addAll(Arrays.asList(DEFAULT_PUZZLES));
+        }
+        if (runs < 1 || warmup < 0) {
+            System.err.println("Need at least one timed run");
+            System.exit(2);
+        }
+
+        List<Measurement> measurements = new ArrayList<>();
+        Map<String, Board> boards = new LinkedHashMap<>();
+        for (String puzzle : puzzles) {
+            Board board = FileHandler.loadBoardFromFile(puzzle);
+            boards.put(puzzle, board);
+            for (int[] config : CONFIGS) {
+                measurements.add(measure(puzzle, board, config[0], config[1], warmup, runs));
+            }
+        }
+
+        if (update) {
+            try (PrintWriter out = new PrintWriter(new FileWriter(baselinePath))) {
+                out.println(HEADER);
+                for (Measurement m : measurements) {
+                    out.println(m.toCsv());
+                }
+            }
+            System.out.println("Wrote " + measurements.size() + " results to " + baselinePath);
+            return;
+        }
+
+        Map<String, Measurement> baseline = readBaseline(baselinePath);
+        int regressions = 0;
+        System.out.printf("%-20s %-16s %6s %10s %10s %12s %10s %10s  %s%n",
+                "puzzle", "search", "cost", "nodes", "base", "alloc", "ms", "base ms", "verdict");
+        for (int i = 0; i < measurements.size(); i++) {
+            Measurement m = measurements.get(i);
+            Measurement base = baseline.get(m.key());
+            for (int retry = 0; retry < TIME_RETRIES && base != null && isSlower(m, base, timeTolerance); retry++) {
+                Measurement again = measure(m.puzzle, boards.get(m.puzzle), m.algorithmType, m.heuristicType, warmup, runs);
+                if (again.medianMs < m.medianMs) {
+                    m = again;
+                    measurements.set(i, m);
+                }
+            }
+            List<String> problems = new ArrayList<>();
+            if (base == null) {
+                problems.add("not in baseline");
+            } else {
+                if (m.cost != base.cost) {
+                    problems.add("cost " + base.cost + " -> " + m.cost);
+                }
+                if (m.nodes > base.nodes * (1 + nodeTolerance / 100)) {
+                    problems.add("nodes +" + percent(m.nodes, base.nodes));
+                }
+                if (isSlower(m, base, timeTolerance)) {
+                    problems.add("time +" + percent(m.medianMs, base.medianMs));
+                }
+            }
+            // A puzzle missing from the baseline is new, not slower.
+            boolean failed = base != null && !problems.isEmpty();
+            if (failed) {
+                regressions++;
+            }
+            System.out.printf(Locale.ROOT, "%-20s %-16s %6d %10d %10s %12d %10.2f %10s  %s%n",
+                    m.puzzle, m.search(), m.cost, m.nodes, base == null ? "-" : String.valueOf(base.nodes),
+                    m.allocatedBytes, m.medianMs, base == null ? "-" : String.format(Locale.ROOT, "%.2f", base.medianMs),
+                    problems.isEmpty() ? "ok" : String.join(", ", problems));
+        }
+        System.out.println(regressions == 0 ? "No regressions" : regressions + " regression" + (regressions == 1 ? "" : "s"));
+        if (regressions > 0) {
+            System.exit(1);
+        }
+    }
+
+    // Warm-up runs let the JIT compile the search before the timed runs; allocation is taken
+    // from the last timed run, when the code is in its steady state.
+    private static Measurement measure(String puzzle, Board board, int algorithm, int heuristic, int warmup, int runs) {
+        for (int i = 0; i < warmup; i++) {
+            newPathfinder(algorithm, heuristic).solve(board);
+        }
+        double[] millis = new double[runs];
+        SearchResult result = null;
+        long allocated = 0;
+        for (int i = 0; i < runs; i++) {
+            Pathfinder pathfinder = newPathfinder(algorithm, heuristic);
+            // Starts each run with an empty young generation, so a collection left over from
+            // the previous run doesn't land inside this one.
+            System.gc();
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+            result = pathfinder.solve(board);
+            millis[i] = (System.nanoTime() - start) / 1e6;
+            allocated = allocatedBytes() - allocatedBefore;
+        }
+        Arrays.sort(millis);
+        double median = runs % 2 == 1 ? millis[runs / 2] : (millis[runs / 2 - 1] + millis[runs / 2]) / 2;
+        return new Measurement(puzzle, algorithm, heuristic, PathfinderFactory.nameForType(algorithm),
+                algorithm == PathfinderFactory.UCS ? "none" : HeuristicFactory.nameForType(heuristic),
+                result.getCost(), result.getNodesVisited(), allocated, median);
+    }
+
+    private static Pathfinder newPathfinder(int algorithm, int heuristic) {
+        return PathfinderFactory.createPathfinder(algorithm, HeuristicFactory.createHeuristic(heuristic), false);
+    }
+
+    private static Map<String, Measurement> readBaseline(String path) throws IOException {
+        Map<String, Measurement> baseline = new LinkedHashMap<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(path))) {
+            String line = reader.readLine();
+            if (!HEADER.equals(line)) {
+                throw new IOException(path + " is not a regression baseline (expected header " + HEADER + ")");
+            }
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                String[] fields = line.split(",");
+                if (fields.length != 7) {
+                    throw new IOException("Bad baseline line: " + line);
+                }
+                Measurement m = new Measurement(fields[0], -1, -1, fields[1], fields[2], Integer.parseInt(fields[3]),
+                        Integer.parseInt(fields[4]), Long.parseLong(fields[5]), Double.parseDouble(fields[6]));
+                baseline.put(m.key(), m);
+            }
+        }
+        return baseline;
+    }
+
+    private static boolean isSlower(Measurement m, Measurement base, double timeTolerance) {
+        return m.medianMs > base.medianMs * (1 + timeTolerance / 100) && m.medianMs - base.medianMs > TIME_SLACK_MS;
+    }
+
+    private static String percent(double value, double base) {
+        return base == 0 ? "inf%" : String.format(Locale.ROOT, "%.0f%%", (value - base) * 100 / base);
+    }
+
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getCurrentThreadAllocatedBytes();
+        }
+        return 0;
+    }
+
+    private static final class Measurement {
+        private final String puzzle;
+        // PathfinderFactory and HeuristicFactory types; -1 for entries read from a baseline.
+        private final int algorithmType;
+        private final int heuristicType;
+        private final String algorithm;
+        private final String heuristic;
+        private final int cost;
+        private final int nodes;
+        private final long allocatedBytes;
+        private final double medianMs;
+
+        Measurement(String puzzle, int algorithmType, int heuristicType, String algorithm, String heuristic,
+                    int cost, int nodes, long allocatedBytes, double medianMs) {
+            this.puzzle = puzzle;
+            this.algorithmType = algorithmType;
+            this.heuristicType = heuristicType;
+            this.algorithm = algorithm;
+            this.heuristic = heuristic;
+            this.cost = cost;
+            this.nodes = nodes;
+            this.allocatedBytes = allocatedBytes;
+            this.medianMs = medianMs;
+        }
+
+        String search() {
+            return algorithm + "/" + heuristic;
+        }
+
+        String key() {
+            return puzzle + "," + search();
+        }
+
+        String toCsv() {
+            return String.format(Locale.ROOT, "%s,%s,%s,%d,%d,%d,%.3f",
+                    puzzle, algorithm, heuristic, cost, nodes, allocatedBytes, medianMs);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package benchmark;
+
+import algorithm.MoveGenerator;
+import algorithm.StateKey;
+import java.util.List;
+import java.util.Random;
+import model.Board;
+import model.Move;
+import model.Piece;
+
+// Measures the cost of generating one successor (move generation, copy, apply and state key)
+// on random boards from 6x6 to 64x64. Usage: java benchmark.ScalingBenchmark [expansions]
+public class ScalingBenchmark {
+    private static final int[] SIZES = {6, 8, 16, 32, 48, 64};
+
+    // Written with each walk's checksum so the JIT cannot discard the timed work as dead code.
+    private static volatile long sink;
+
+    public static void main(String[] args) {
+        int expansions = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+
+        System.out.printf("%-7s %8s %12s %12s %14s %16s%n",
+                "size", "pieces", "successors", "ns/node", "ns/node/lane", "ns/node/(area*p)");
+        for (int size : SIZES) {
+            Board board = randomBoard(size, new Random(size));
+            // Warm-up pass so the JIT has compiled the hot path before timing.
+            walk(board, expansions, new Random(1));
+
+            long start = System.nanoTime();
+            long successors = walk(board, expansions, new Random(1));
+            double nsPerNode = (double) (System.nanoTime() - start) / successors;
+
+            int pieces = board.getPieces().size();
+            System.out.printf("%-7s %8d %12d %12.1f %14.2f %16.5f%n",
+                    size + "x" + size, pieces, successors, nsPerNode,
+                    nsPerNode / size, nsPerNode / ((double) size * size * pieces));
+        }
+    }
+
+    // Random walk that fully generates every visited board's successors.
+    private static long walk(Board start, int expansions, Random random) {
+        Board board = start;
+        long successors = 0;
+        long checksum = 0;
+        for (int i = 0; i < expansions; i++) {
+            List<Move> moves = MoveGenerator.generateMoves(board);
+            if (moves.isEmpty()) {
+                break;
+            }
+            Board next = board;
+            int pick = random.nextInt(moves.size());
+            for (int m = 0; m < moves.size(); m++) {
+                Board child = MoveGenerator.applyMove(board, moves.get(m));
+                checksum += StateKey.of(child).hashCode();
+                if (m == pick) {
+                    next = child;
+                }
+            }
+            successors += moves.size();
+            board = next;
+        }
+        sink = checksum;
+        return successors;
+    }
+
+    // Fills about half the cells with cars of length 2 or 3; the primary piece sits on the
+    // middle row with the exit on the right.
+    static Board randomBoard(int size, Random random) {
+        Board board = new Board(size, size);
+        board.setExit(size / 2, size);
+        board.addPiece(new Piece('P', size / 2, 0, 2, true, true));
+
+        char nextId = '\uE000';
+        int occupied = 2;
+        int attempts = 0;
+        while (occupied < size * size / 2 && attempts++ < size * size * 20) {
+            boolean horizontal = random.nextBoolean();
+            int length = 2 + random.nextInt(2);
+            int row = random.nextInt(horizontal ? size : size - length + 1);
+            int col = random.nextInt(horizontal ? size - length + 1 : size);
+            if (horizontal && row == size / 2) {
+                continue;
+            }
+
+            boolean free = true;
+            for (int i = 0; i < length && free; i++) {
+                free = board.getCell(horizontal ? row : row + i, horizontal ? col + i : col) == '.';
+            }
+            if (free) {
+                String label = "V" + (nextId - '\uE000');
+                board.addPiece(new Piece(nextId++, label, row, col, length, horizontal, false));
+                occupied += length;
+            }
+        }
+        return board;
+    }
+}
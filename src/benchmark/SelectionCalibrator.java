@@ -0,0 +1,282 @@
+package benchmark;
+
+import algorithm.AutoSearch;
+import algorithm.BestFirstSearch;
+import algorithm.BoardFeatures;
+import algorithm.HeuristicFactory;
+import algorithm.PathfinderFactory;
+import algorithm.PortfolioSearch;
+import algorithm.SearchResult;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import model.Board;
+import utility.PuzzleCorpus;
+
+// Fits the selection table of AutoSearch. Every candidate configuration solves every puzzle of
+// the corpora, and its cost is the number of nodes it generated, which unlike wall time comes
+// out the same on every run; a solve still going at the node limit is stopped and charged what
+// it generated by then. The last row of the table is the best fixed configuration over the
+// whole corpus. Every holdout-th puzzle is set aside, and puzzles are grouped by estimated
+// states, exit-lane blockers and lane congestion. The groups are fitted in table order, each on
+// the puzzles that reach it. A group becomes a row only if it has enough fitted puzzles, its
+// best candidate (fewest total moves on a tie) beats the fixed configuration there by the
+// minimum gain, and it also generates fewer nodes than the fixed configuration on the held-out
+// puzzles that reach it; otherwise its puzzles fall through to later rows. A row followed by
+// one that picks the same configuration and covers it is merged away. The table is printed as
+// source for AutoSearch.TABLE, followed by the totals of each fixed configuration, the table
+// and a perfect per-puzzle choice on the fitted and on the held-out puzzles.
+// Usage: java benchmark.SelectionCalibrator [--node-limit N] [--min-samples N] [--min-gain PCT]
+//        [--holdout K] [--optimal] corpus...
+public class SelectionCalibrator {
+    private static final long[] STATE_LIMITS = {1_000, 10_000, 100_000, 1_000_000, Long.MAX_VALUE};
+    private static final int[] BLOCKER_LIMITS = {0, 1, 2, Integer.MAX_VALUE};
+    private static final double[] CONGESTION_LIMITS = {0.5, 1.0};
+
+    public static void main(String[] args) throws IOException {
+        int nodeLimit = 20_000;
+        int minSamples = 20;
+        double minGainPercent = 10;
+        int holdout = 4;
+        boolean optimalOnly = false;
+        List<String> corpora = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--node-limit":
+                    nodeLimit = Integer.parseInt(args[++i]);
+                    break;
+                case "--min-samples":
+                    minSamples = Integer.parseInt(args[++i]);
+                    break;
+                case "--min-gain":
+                    minGainPercent = Double.parseDouble(args[++i]);
+                    break;
+                case "--holdout":
+                    holdout = Integer.parseInt(args[++i]);
+                    break;
+                case "--optimal":
+                    optimalOnly = true;
+                    break;
+                default:
+                    corpora.add(args[i]);
+            }
+        }
+        if (corpora.isEmpty()) {
+            corpora.add("test/calibration-corpus.txt");
+        }
+        if (holdout < 2) {
+            throw new IllegalArgumentException("--holdout must be at least 2");
+        }
+
+        List<PortfolioSearch.Config> candidates = new ArrayList<>();
+        candidates.add(new PortfolioSearch.Config(PathfinderFactory.UCS, 0));
+        for (int algorithm : new int[]{PathfinderFactory.GREEDY_BEST_FIRST, PathfinderFactory.A_STAR}) {
+            for (int heuristic : new int[]{HeuristicFactory.DISTANCE_HEURISTIC,
+                    HeuristicFactory.BLOCKING_VEHICLES_HEURISTIC, HeuristicFactory.COMBINED_HEURISTIC}) {
+                PortfolioSearch.Config config = new PortfolioSearch.Config(algorithm, heuristic);
+                if (!optimalOnly || config.isOptimal()) {
+                    candidates.add(config);
+                }
+            }
+        }
+
+        List<Board> boards = new ArrayList<>();
+        for (String corpus : corpora) {
+            for (Board board : new PuzzleCorpus(corpus)) {
+                boards.add(board);
+            }
+        }
+        List<BoardFeatures> features = new ArrayList<>();
+        for (Board board : boards) {
+            features.add(BoardFeatures.of(board));
+        }
+
+        long[][] nodes = new long[boards.size()][candidates.size()];
+        int[][] moves = new int[boards.size()][candidates.size()];
+        for (int i = 0; i < boards.size(); i++) {
+            for (int c = 0; c < candidates.size(); c++) {
+                SearchResult result = solve(candidates.get(c), boards.get(i), nodeLimit);
+                nodes[i][c] = result.getNodesGenerated();
+                moves[i][c] = result.getMoves().size();
+            }
+            if ((i + 1) % 50 == 0) {
+                System.err.println("Solved " + (i + 1) + " of " + boards.size() + " puzzles");
+            }
+        }
+
+        int every = holdout;
+        IndexFilter fitted = i -> i % every != every - 1;
+        IndexFilter heldOut = i -> i % every == every - 1;
+        // The fallback is a single choice out of a handful, so it is taken on the whole corpus.
+        int overall = best(candidates.size(), nodes, moves, i -> true);
+        double maxRatio = 1 - minGainPercent / 100;
+
+        List<AutoSearch.Rule> table = new ArrayList<>();
+        boolean[] claimed = new boolean[boards.size()];
+        System.out.println("// Groups in table order (fitted puzzles reaching the group, best and "
+                + candidates.get(overall) + " total nodes on them, then the same on held-out puzzles):");
+        for (long maxStates : STATE_LIMITS) {
+            for (int maxBlockers : BLOCKER_LIMITS) {
+                for (double maxCongestion : CONGESTION_LIMITS) {
+                    AutoSearch.Rule limits = new AutoSearch.Rule(maxStates, maxBlockers, maxCongestion,
+                            PathfinderFactory.UCS, 0);
+                    IndexFilter reaching = i -> !claimed[i] && limits.matches(features.get(i));
+                    IndexFilter fittedReaching = i -> fitted.test(i) && reaching.test(i);
+                    IndexFilter heldOutReaching = i -> heldOut.test(i) && reaching.test(i);
+                    int count = 0;
+                    for (int i = 0; i < boards.size(); i++) {
+                        if (fittedReaching.test(i)) {
+                            count++;
+                        }
+                    }
+                    if (count < minSamples) {
+                        continue;
+                    }
+                    int best = best(candidates.size(), nodes, moves, fittedReaching);
+                    long bestNodes = total(nodes, best, fittedReaching);
+                    long fixedNodes = total(nodes, overall, fittedReaching);
+                    long heldOutBest = total(nodes, best, heldOutReaching);
+                    long heldOutFixed = total(nodes, overall, heldOutReaching);
+                    AutoSearch.Rule rule = new AutoSearch.Rule(maxStates, maxBlockers, maxCongestion,
+                            candidates.get(best).getAlgorithm(), candidates.get(best).getHeuristic());
+                    // A split has to hold up on puzzles it was not fitted on as well.
+                    boolean kept = best != overall && bestNodes <= fixedNodes * maxRatio && heldOutBest < heldOutFixed;
+                    System.out.printf(Locale.ROOT, "//   %s  %d puzzles, %s %d, fixed %d; held out %d, fixed %d%s%n",
+                            rule.toSource(), count, candidates.get(best), bestNodes, fixedNodes,
+                            heldOutBest, heldOutFixed, kept ? "" : "  (skipped)");
+                    if (kept) {
+                        table.add(rule);
+                        for (int i = 0; i < boards.size(); i++) {
+                            if (reaching.test(i)) {
+                                claimed[i] = true;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        table.add(new AutoSearch.Rule(Long.MAX_VALUE, Integer.MAX_VALUE, 1.0,
+                candidates.get(overall).getAlgorithm(), candidates.get(overall).getHeuristic()));
+        // A row followed by one with the same configuration that holds every board it does is
+        // redundant: the boards it matches get the same choice one row later.
+        for (int r = table.size() - 2; r >= 0; r--) {
+            AutoSearch.Rule next = table.get(r + 1);
+            if (next.getConfig().toString().equals(table.get(r).getConfig().toString()) && next.covers(table.get(r))) {
+                table.remove(r);
+            }
+        }
+        if (table.size() == 1) {
+            System.out.println("// No feature split beat " + candidates.get(overall) + " on both parts of the corpus.");
+        }
+        System.out.println("private static final Rule[] TABLE = {");
+        for (AutoSearch.Rule rule : table) {
+            System.out.println("        " + rule.toSource());
+        }
+        System.out.println("};");
+
+        System.out.println();
+        System.out.printf("%-20s %14s %12s %14s %12s%n", "configuration", "fitted nodes", "moves", "held-out nodes", "moves");
+        for (int c = 0; c < candidates.size(); c++) {
+            System.out.printf(Locale.ROOT, "%-20s %14d %12d %14d %12d%n", candidates.get(c),
+                    total(nodes, c, fitted), total(moves, c, fitted), total(nodes, c, heldOut), total(moves, c, heldOut));
+        }
+        int[] chosen = new int[boards.size()];
+        int[] fastest = new int[boards.size()];
+        for (int i = 0; i < boards.size(); i++) {
+            chosen[i] = indexOf(candidates, choose(table, features.get(i)));
+            for (int c = 1; c < candidates.size(); c++) {
+                if (nodes[i][c] < nodes[i][fastest[i]]) {
+                    fastest[i] = c;
+                }
+            }
+        }
+        System.out.printf(Locale.ROOT, "%-20s %14d %12d %14d %12d%n", "table",
+                picked(nodes, chosen, fitted), picked(moves, chosen, fitted),
+                picked(nodes, chosen, heldOut), picked(moves, chosen, heldOut));
+        System.out.printf(Locale.ROOT, "%-20s %14d %12s %14d%n", "best per puzzle",
+                picked(nodes, fastest, fitted), "", picked(nodes, fastest, heldOut));
+    }
+
+    private interface IndexFilter {
+        boolean test(int index);
+    }
+
+    private static int best(int candidates, long[][] nanos, int[][] moves, IndexFilter filter) {
+        int best = 0;
+        for (int c = 1; c < candidates; c++) {
+            long time = total(nanos, c, filter);
+            long bestTime = total(nanos, best, filter);
+            if (time < bestTime || (time == bestTime && total(moves, c, filter) < total(moves, best, filter))) {
+                best = c;
+            }
+        }
+        return best;
+    }
+
+    private static long total(long[][] values, int candidate, IndexFilter filter) {
+        long sum = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (filter.test(i)) {
+                sum += values[i][candidate];
+            }
+        }
+        return sum;
+    }
+
+    private static long total(int[][] values, int candidate, IndexFilter filter) {
+        long sum = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (filter.test(i)) {
+                sum += values[i][candidate];
+            }
+        }
+        return sum;
+    }
+
+    // Total over the filtered puzzles of the value of the candidate picked for each.
+    private static long picked(long[][] values, int[] picks, IndexFilter filter) {
+        long sum = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (filter.test(i)) {
+                sum += values[i][picks[i]];
+            }
+        }
+        return sum;
+    }
+
+    private static long picked(int[][] values, int[] picks, IndexFilter filter) {
+        long sum = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (filter.test(i)) {
+                sum += values[i][picks[i]];
+            }
+        }
+        return sum;
+    }
+
+    private static PortfolioSearch.Config choose(List<AutoSearch.Rule> table, BoardFeatures features) {
+        for (AutoSearch.Rule rule : table) {
+            if (rule.matches(features)) {
+                return rule.getConfig();
+            }
+        }
+        return table.get(table.size() - 1).getConfig();
+    }
+
+    private static int indexOf(List<PortfolioSearch.Config> candidates, PortfolioSearch.Config config) {
+        for (int c = 0; c < candidates.size(); c++) {
+            if (candidates.get(c).toString().equals(config.toString())) {
+                return c;
+            }
+        }
+        throw new IllegalStateException("Not a candidate: " + config);
+    }
+
+    private static SearchResult solve(PortfolioSearch.Config config, Board board, int nodeLimit) {
+        BestFirstSearch search = (BestFirstSearch) PathfinderFactory.createPathfinder(config.getAlgorithm(),
+                HeuristicFactory.createHeuristic(config.getHeuristic()), false);
+        search.setNodeLimit(nodeLimit);
+        return search.solve(board);
+    }
+}
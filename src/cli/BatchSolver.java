@@ -0,0 +1,416 @@
+package cli;
+
+import algorithm.AutoSearch;
+import algorithm.BeamSearch;
+import algorithm.BestFirstSearch;
+import algorithm.BitstateSearch;
+import algorithm.HeuristicFactory;
+import algorithm.Pathfinder;
+import algorithm.PathfinderFactory;
+import algorithm.PortfolioSearch;
+import algorithm.PruningReport;
+import algorithm.RelevancePruner;
+import algorithm.SearchResult;
+import algorithm.SolverMetrics;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import model.Board;
+import model.Move;
+import utility.FileHandler;
+import utility.Json;
+import utility.PuzzleCorpus;
+
+// Solves puzzle files, directories of them and corpora without touching AWT or Swing, and
+// streams one CSV row or JSON object per puzzle as soon as it is solved. Rows arrive in
+// completion order; the source and index columns identify the puzzle.
+public class BatchSolver {
+    private static final String USAGE = String.join("\n",
+            "Usage: java Main [options] <puzzle file | directory | corpus>...",
+            "  --algorithm ucs|gbfs|astar|astar-disk|bitstate|portfolio|portfolio-optimal|beam|auto",
+            "                                                   (default astar)",
+            "  --heuristic distance|blocking|combined           (default blocking)",
+            "  --format csv|json                                (default csv)",
+            "  --threads N                                      (default: available processors)",
+            "  --output FILE                                    (default: standard output)",
+            "  --symmetry                                       merge symmetric states",
+            "  --prune                                          freeze vehicles that cannot affect the exit",
+            "  --beam-width N                                   starting width for --algorithm beam (default "
+                    + BeamSearch.DEFAULT_WIDTH + ")",
+            "  --no-widen                                       keep the beam width fixed instead of doubling it");
+    private static final String CSV_HEADER = "source,index,status,moves,cost,nodes,time_ms,alloc_bytes,heap_peak_bytes";
+    private static final String CSV_PRUNING_COLUMNS = ",frozen,reachable_before,reachable_after";
+    private static final String CSV_BEAM_COLUMNS = ",beam_width,possibly_suboptimal";
+    private static final String CSV_AUTO_COLUMNS = ",auto_choice";
+    private static final String CSV_BITSTATE_COLUMNS = ",estimated_coverage,collision_probability";
+
+    private int algorithm = PathfinderFactory.A_STAR;
+    private int heuristic = HeuristicFactory.BLOCKING_VEHICLES_HEURISTIC;
+    private boolean json;
+    private boolean canonicalizeStates;
+    private boolean prune;
+    private int beamWidth = BeamSearch.DEFAULT_WIDTH;
+    private boolean widenBeam = true;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private String outputPath;
+    private final List<String> inputs = new ArrayList<>();
+
+    private Writer out;
+    // UCS, GBFS and A* keep nothing per solve, so every worker shares one instance.
+    private Pathfinder sharedPathfinder;
+    private final AtomicInteger failures = new AtomicInteger();
+
+    // Returns the process exit code: 0 when every puzzle was read, 1 if any failed, 2 on bad usage.
+    public static int run(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        BatchSolver solver = new BatchSolver();
+        String problem = solver.parseArguments(args);
+        if (problem != null) {
+            System.err.println(problem);
+            System.err.println(USAGE);
+            return 2;
+        }
+        try {
+            solver.solveAll();
+        } catch (IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            return 1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 1;
+        }
+        return solver.failures.get() == 0 ? 0 : 1;
+    }
+
+    private String parseArguments(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                inputs.add(arg);
+                continue;
+            }
+            if (arg.equals("--symmetry")) {
+                canonicalizeStates = true;
+                continue;
+            }
+            if (arg.equals("--prune")) {
+                prune = true;
+                continue;
+            }
+            if (arg.equals("--no-widen")) {
+                widenBeam = false;
+                continue;
+            }
+            if (i + 1 >= args.length) {
+                return "Missing value for " + arg;
+            }
+            String value = args[++i];
+            switch (arg) {
+                case "--algorithm":
+                    algorithm = PathfinderFactory.typeForName(value);
+                    if (algorithm < 0) {
+                        return "Unknown algorithm: " + value;
+                    }
+                    break;
+                case "--heuristic":
+                    heuristic = HeuristicFactory.typeForName(value);
+                    if (heuristic < 0) {
+                        return "Unknown heuristic: " + value;
+                    }
+                    break;
+                case "--format":
+                    if (!value.equals("csv") && !value.equals("json")) {
+                        return "Unknown format: " + value;
+                    }
+                    json = value.equals("json");
+                    break;
+                case "--threads":
+                    try {
+                        threads = Integer.parseInt(value);
+                    } catch (NumberFormatException e) {
+                        threads = 0;
+                    }
+                    if (threads < 1) {
+                        return "Thread count must be a positive number";
+                    }
+                    break;
+                case "--beam-width":
+                    try {
+                        beamWidth = Integer.parseInt(value);
+                    } catch (NumberFormatException e) {
+                        beamWidth = 0;
+                    }
+                    if (beamWidth < 1) {
+                        return "Beam width must be a positive number";
+                    }
+                    break;
+                case "--output":
+                    outputPath = value;
+                    break;
+                default:
+                    return "Unknown option: " + arg;
+            }
+        }
+        return inputs.isEmpty() ? "No puzzles given" : null;
+    }
+
+    private void solveAll() throws IOException, InterruptedException {
+        out = new BufferedWriter(new OutputStreamWriter(outputPath == null
+                ? new FileOutputStream(FileDescriptor.out) : new FileOutputStream(outputPath), StandardCharsets.UTF_8), 1 << 16);
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "batch-solver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Pathfinder pathfinder = newPathfinder();
+        sharedPathfinder = pathfinder instanceof BestFirstSearch ? pathfinder : null;
+        // Bounds the queued work so a corpus of any size is read at the pace it is solved.
+        Semaphore inFlight = new Semaphore(threads * 4);
+
+        try {
+            if (!json) {
+                emit(CSV_HEADER + (prune ? CSV_PRUNING_COLUMNS : "")
+                        + (algorithm == PathfinderFactory.BEAM ? CSV_BEAM_COLUMNS : "")
+                        + (algorithm == PathfinderFactory.AUTO ? CSV_AUTO_COLUMNS : "")
+                        + (algorithm == PathfinderFactory.BITSTATE ? CSV_BITSTATE_COLUMNS : ""));
+            }
+            for (String input : inputs) {
+                for (File file : expand(new File(input))) {
+                    if (isCorpus(file)) {
+                        PuzzleCorpus corpus = new PuzzleCorpus(file.getPath());
+                        for (int i = 0; i < corpus.size(); i++) {
+                            int index = i;
+                            inFlight.acquire();
+                            pool.execute(() -> solve(file.getPath(), index, () -> corpus.getBoard(index), inFlight));
+                        }
+                    } else {
+                        inFlight.acquire();
+                        pool.execute(() -> solve(file.getPath(), 0, () -> FileHandler.loadBoardFromFile(file.getPath()), inFlight));
+                    }
+                }
+            }
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+            if (algorithm == PathfinderFactory.PORTFOLIO || algorithm == PathfinderFactory.PORTFOLIO_OPTIMAL) {
+                System.err.println("Portfolio wins: " + PortfolioSearch.getWinCounts());
+            }
+            if (algorithm == PathfinderFactory.AUTO) {
+                System.err.println("Auto choices: " + AutoSearch.getChoiceCounts());
+            }
+        } finally {
+            pool.shutdownNow();
+            out.flush();
+            if (outputPath != null) {
+                out.close();
+            }
+        }
+    }
+
+    private interface BoardSource {
+        Board load() throws IOException;
+    }
+
+    private void solve(String source, int index, BoardSource boardSource, Semaphore inFlight) {
+        try {
+            Board board = boardSource.load();
+            Pathfinder pathfinder = sharedPathfinder != null ? sharedPathfinder : newPathfinder();
+
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+            PruningReport pruning = prune ? RelevancePruner.prune(board) : null;
+            SearchResult result = SolverMetrics.solve(pathfinder, pruning != null ? pruning.getBoard() : board);
+            long elapsed = System.nanoTime() - start;
+            long allocated = allocatedBytes() - allocatedBefore;
+
+            List<Move> solution = result.getMoves();
+            boolean solved = !solution.isEmpty() || board.canPrimaryPieceExit();
+            BeamSearch beam = pathfinder instanceof BeamSearch ? (BeamSearch) pathfinder : null;
+            BitstateSearch bitstate = pathfinder instanceof BitstateSearch ? (BitstateSearch) pathfinder : null;
+            // A beam that dropped states, or a bitstate run whose filter may have pruned the way
+            // out, proves nothing by finding nothing.
+            boolean approximate = bitstate != null || (beam != null && beam.isPossiblySuboptimal());
+            String status = solved ? "solved" : approximate ? "not_found" : "unsolvable";
+            AutoSearch auto = pathfinder instanceof AutoSearch ? (AutoSearch) pathfinder : null;
+            emitResult(source, index, status, solution.size(), result.getCost(),
+                    result.getNodesVisited(), elapsed, allocated, pruning, beam, auto, bitstate, null);
+        } catch (IOException | RuntimeException e) {
+            failures.incrementAndGet();
+            emitResult(source, index, "error", 0, 0, 0, 0, 0, null, null, null, null, e.getMessage() != null ? e.getMessage() : e.toString());
+        } catch (OutOfMemoryError e) {
+            failures.incrementAndGet();
+            emitResult(source, index, "error", 0, 0, 0, 0, 0, null, null, null, null, "out of memory");
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    private Pathfinder newPathfinder() {
+        if (algorithm == PathfinderFactory.BEAM) {
+            // Puzzles already run in parallel, so each beam gets a share of the cores.
+            return new BeamSearch(HeuristicFactory.createHeuristic(heuristic), beamWidth,
+                    widenBeam ? Math.max(beamWidth, BeamSearch.DEFAULT_MAX_WIDTH) : beamWidth, canonicalizeStates,
+                    Math.max(1, Runtime.getRuntime().availableProcessors() / threads));
+        }
+        return PathfinderFactory.createPathfinder(algorithm, HeuristicFactory.createHeuristic(heuristic), canonicalizeStates);
+    }
+
+    private void emitResult(String source, int index, String status, int moves, int cost, int nodes,
+                            long elapsedNanos, long allocated, PruningReport pruning, BeamSearch beam, AutoSearch auto, BitstateSearch bitstate,
+                            String error) {
+        String time = String.format(Locale.ROOT, "%.3f", elapsedNanos / 1e6);
+        long heapPeak = heapPeakBytes();
+        StringBuilder sb = new StringBuilder(128);
+        if (json) {
+            sb.append("{\"source\":").append(Json.quote(source))
+                    .append(",\"index\":").append(index)
+                    .append(",\"status\":\"").append(status).append('"')
+                    .append(",\"moves\":").append(moves)
+                    .append(",\"cost\":").append(cost)
+                    .append(",\"nodes\":").append(nodes)
+                    .append(",\"time_ms\":").append(time)
+                    .append(",\"alloc_bytes\":").append(allocated)
+                    .append(",\"heap_peak_bytes\":").append(heapPeak);
+            if (pruning != null) {
+                sb.append(",\"frozen\":").append(pruning.getFrozenPieces().size())
+                        .append(",\"reachable_before\":").append(pruning.getReachableStatesBefore())
+                        .append(",\"reachable_after\":").append(pruning.getReachableStatesAfter());
+            }
+            if (beam != null) {
+                sb.append(",\"beam_width\":").append(beam.getBeamWidth())
+                        .append(",\"possibly_suboptimal\":").append(beam.isPossiblySuboptimal());
+            }
+            if (auto != null) {
+                sb.append(",\"auto_choice\":").append(Json.quote(auto.getChoice().toString()));
+            }
+            if (bitstate != null) {
+                sb.append(",\"estimated_coverage\":").append(bitstate.getEstimatedCoverage())
+                        .append(",\"collision_probability\":").append(bitstate.getCollisionProbability());
+            }
+            if (error != null) {
+                sb.append(",\"error\":").append(Json.quote(error));
+            }
+            sb.append('}');
+        } else {
+            sb.append(csvField(source)).append(',').append(index).append(',').append(status).append(',')
+                    .append(moves).append(',').append(cost).append(',').append(nodes).append(',')
+                    .append(time).append(',').append(allocated).append(',').append(heapPeak);
+            if (prune) {
+                if (pruning != null) {
+                    sb.append(',').append(pruning.getFrozenPieces().size()).append(',')
+                            .append(pruning.getReachableStatesBefore()).append(',').append(pruning.getReachableStatesAfter());
+                } else {
+                    sb.append(",,,");
+                }
+            }
+            if (algorithm == PathfinderFactory.BEAM) {
+                if (beam != null) {
+                    sb.append(',').append(beam.getBeamWidth()).append(',').append(beam.isPossiblySuboptimal());
+                } else {
+                    sb.append(",,");
+                }
+            }
+            if (algorithm == PathfinderFactory.AUTO) {
+                sb.append(',').append(auto != null ? auto.getChoice() : "");
+            }
+            if (algorithm == PathfinderFactory.BITSTATE) {
+                if (bitstate != null) {
+                    sb.append(',').append(bitstate.getEstimatedCoverage()).append(',').append(bitstate.getCollisionProbability());
+                } else {
+                    sb.append(",,");
+                }
+            }
+            if (error != null) {
+                System.err.println(source + "#" + index + ": " + error);
+            }
+        }
+        emit(sb.toString());
+    }
+
+    private synchronized void emit(String line) {
+        try {
+            out.write(line);
+            out.write('\n');
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<File> expand(File input) throws IOException {
+        if (!input.exists()) {
+            throw new IOException("No such file or directory: " + input);
+        }
+        if (!input.isDirectory()) {
+            return List.of(input);
+        }
+        File[] files = input.listFiles(file -> file.isFile() && !file.getName().startsWith("."));
+        if (files == null) {
+            throw new IOException("Cannot list directory: " + input);
+        }
+        Arrays.sort(files);
+        return Arrays.asList(files);
+    }
+
+    // A single-puzzle file starts with "width height"; a corpus line carries the exit and
+    // cells on the same line.
+    private static boolean isCorpus(File file) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String trimmed = line.trim();
+                if (!trimmed.isEmpty() && !trimmed.startsWith("#")) {
+                    return trimmed.split("\\s+").length >= 5;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Bytes allocated by the calling thread, when the JVM can report it.
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getCurrentThreadAllocatedBytes();
+        }
+        return 0;
+    }
+
+    // The heap is shared by all solver threads, so the high-water mark is for the whole run so far.
+    private static long heapPeakBytes() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
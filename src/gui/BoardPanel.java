@@ -7,31 +7,86 @@ import java.awt.Font;
 import java.awt.FontMetrics;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.Shape;
 import java.awt.Stroke;
+import java.awt.image.BufferedImage;
 import java.util.HashMap;
 import java.util.Map;
 import javax.swing.JPanel;
 import model.Board;
+import model.Piece;
 
+// Cells are drawn once into an offscreen image. When the next board differs only by moved
+// pieces, just those pieces' old and new cells are redrawn and repainted, and painting copies
+// the clipped (visible, dirty) part of the image. Boards too large for the image are drawn
+// straight from the cell grid, limited to the clip.
 public class BoardPanel extends JPanel {
     private Board board;
     private static final int CELL_SIZE = 50;
+    private static final long MAX_BUFFER_PIXELS = 12_000_000;
     private Map<Character, Color> pieceColors = new HashMap<>();
+    private BufferedImage buffer;
+    private Font labelFont;
 
     public BoardPanel() {
         setPreferredSize(new Dimension(600, 600));
     }
 
     public void setBoard(Board board) {
+        Board previous = this.board;
         this.board = board;
+        if (previous != null && board != null && sameLayout(previous, board)) {
+            Rectangle dirty = null;
+            for (Piece piece : board.getPieces().values()) {
+                Piece old = previous.getPieces().get(piece.getId());
+                if (old.getRow() != piece.getRow() || old.getCol() != piece.getCol()) {
+                    Rectangle moved = pieceCells(old).union(pieceCells(piece));
+                    dirty = dirty == null ? moved : dirty.union(moved);
+                    redrawCells(moved);
+                }
+            }
+            if (dirty != null) {
+                repaint(dirty.x * CELL_SIZE, dirty.y * CELL_SIZE, dirty.width * CELL_SIZE + 1, dirty.height * CELL_SIZE + 1);
+            }
+            return;
+        }
+
         assignColors();
         int width = board != null ? board.getWidth() : 0;
         int height = board != null ? board.getHeight() : 0;
+        buffer = null;
+        if (board != null && (long) width * height * CELL_SIZE * CELL_SIZE <= MAX_BUFFER_PIXELS) {
+            buffer = new BufferedImage(width * CELL_SIZE + 1, height * CELL_SIZE + 1, BufferedImage.TYPE_INT_RGB);
+            redrawCells(new Rectangle(0, 0, width, height));
+        }
         setPreferredSize(new Dimension(width * CELL_SIZE, height * CELL_SIZE));
         revalidate();
         repaint();
     }
 
+    // Boards of one solution share dimensions, exit and pieces; only positions change.
+    private static boolean sameLayout(Board a, Board b) {
+        if (a.getWidth() != b.getWidth() || a.getHeight() != b.getHeight()
+                || a.getExitRow() != b.getExitRow() || a.getExitCol() != b.getExitCol()
+                || a.getPieces().size() != b.getPieces().size()) {
+            return false;
+        }
+        for (Piece piece : b.getPieces().values()) {
+            Piece other = a.getPieces().get(piece.getId());
+            if (other == null || other.getLength() != piece.getLength() || other.isHorizontal() != piece.isHorizontal()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Rectangle pieceCells(Piece piece) {
+        return piece.isHorizontal()
+                ? new Rectangle(piece.getCol(), piece.getRow(), piece.getLength(), 1)
+                : new Rectangle(piece.getCol(), piece.getRow(), 1, piece.getLength());
+    }
+
     private void assignColors() {
         pieceColors.clear();
         if (board == null) return;
@@ -43,45 +98,91 @@ public class BoardPanel extends JPanel {
         }
     }
 
+    private void redrawCells(Rectangle cells) {
+        if (buffer == null) {
+            return;
+        }
+        Graphics2D g2 = buffer.createGraphics();
+        try {
+            drawCells(g2, cells);
+        } finally {
+            g2.dispose();
+        }
+    }
+
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
         if (board == null) return;
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = getVisibleRect();
+        }
+        if (buffer != null) {
+            int x2 = Math.min(clip.x + clip.width, buffer.getWidth());
+            int y2 = Math.min(clip.y + clip.height, buffer.getHeight());
+            g.drawImage(buffer, clip.x, clip.y, x2, y2, clip.x, clip.y, x2, y2, null);
+            return;
+        }
+        int c0 = Math.max(0, clip.x / CELL_SIZE);
+        int r0 = Math.max(0, clip.y / CELL_SIZE);
+        int c1 = Math.min(board.getWidth(), (clip.x + clip.width) / CELL_SIZE + 1);
+        int r1 = Math.min(board.getHeight(), (clip.y + clip.height) / CELL_SIZE + 1);
+        drawCells((Graphics2D) g, new Rectangle(c0, r0, c1 - c0, r1 - r0));
+    }
+
+    // Draws the given cells (x = column, y = row), then the exit marker over them.
+    private void drawCells(Graphics2D g2, Rectangle cells) {
         int width = board.getWidth();
         int height = board.getHeight();
+        if (labelFont == null) {
+            labelFont = getFont().deriveFont(Font.BOLD, 20f);
+        }
+        g2.setFont(labelFont);
+        FontMetrics fm = g2.getFontMetrics();
+        char primaryId = board.getPrimaryPieceId();
 
-        Graphics2D g2 = (Graphics2D) g;
-        Stroke oldStroke = g2.getStroke();
-        for (int r = 0; r < height; r++) {
-            for (int c = 0; c < width; c++) {
+        int r0 = Math.max(0, cells.y);
+        int r1 = Math.min(height, cells.y + cells.height);
+        int c0 = Math.max(0, cells.x);
+        int c1 = Math.min(width, cells.x + cells.width);
+        for (int r = r0; r < r1; r++) {
+            for (int c = c0; c < c1; c++) {
                 char cellChar = board.getCell(r, c);
                 Color bgColor = Color.LIGHT_GRAY;
                 if (cellChar == '.') {
                     bgColor = Color.WHITE;
-                } else if (cellChar == 'P') {
+                } else if (cellChar == primaryId) {
                     bgColor = Color.RED;
                 } else if (pieceColors.containsKey(cellChar)) {
                     bgColor = pieceColors.get(cellChar);
                 }
-                g.setColor(bgColor);
-                g.fillRect(c * CELL_SIZE, r * CELL_SIZE, CELL_SIZE, CELL_SIZE);
-                g.setColor(Color.BLACK);
-                g.drawRect(c * CELL_SIZE, r * CELL_SIZE, CELL_SIZE, CELL_SIZE);
+                g2.setColor(bgColor);
+                g2.fillRect(c * CELL_SIZE, r * CELL_SIZE, CELL_SIZE, CELL_SIZE);
+                g2.setColor(Color.BLACK);
+                g2.drawRect(c * CELL_SIZE, r * CELL_SIZE, CELL_SIZE, CELL_SIZE);
                 if (cellChar != '.') {
-                    g.setColor(Color.BLACK);
-                    g.setFont(g.getFont().deriveFont(Font.BOLD, 20f));
-                    FontMetrics fm = g.getFontMetrics();
-                    String text = String.valueOf(cellChar);
+                    String text = board.getLabel(cellChar);
                     int textWidth = fm.stringWidth(text);
                     int textHeight = fm.getAscent();
                     int x = c * CELL_SIZE + (CELL_SIZE - textWidth) / 2;
                     int y = r * CELL_SIZE + (CELL_SIZE + textHeight) / 2 - 4;
-                    g.drawString(text, x, y);
+                    if (textWidth <= CELL_SIZE) {
+                        g2.drawString(text, x, y);
+                    } else {
+                        // Long labels are cut at the cell edge so a cell never depends on its neighbours.
+                        Shape oldClip = g2.getClip();
+                        g2.clipRect(c * CELL_SIZE, r * CELL_SIZE, CELL_SIZE, CELL_SIZE);
+                        g2.drawString(text, x, y);
+                        g2.setClip(oldClip);
+                    }
                 }
             }
         }
+
         int exitRow = board.getExitRow();
         int exitCol = board.getExitCol();
+        Stroke oldStroke = g2.getStroke();
         g2.setStroke(new BasicStroke(5));
         g2.setColor(Color.GREEN.darker());
         if (exitRow >= 0 && exitRow < height && exitCol == -1) {
@@ -103,4 +204,4 @@ public class BoardPanel extends JPanel {
         }
         g2.setStroke(oldStroke);
     }
-}
\ No newline at end of file
+}
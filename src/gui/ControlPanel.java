@@ -1,8 +1,10 @@
 package gui;
 
+import algorithm.PathfinderFactory;
 import java.awt.FlowLayout;
 import java.util.function.Consumer;
 import javax.swing.JButton;
+import javax.swing.JCheckBox;
 import javax.swing.JComboBox;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
@@ -13,6 +15,9 @@ public class ControlPanel extends JPanel {
     private JButton browseButton;
     private JComboBox<String> algorithmComboBox;
     private JComboBox<String> heuristicComboBox;
+    private JCheckBox symmetryCheckBox;
+    private JCheckBox pruneCheckBox;
+    private JComboBox<String> speedComboBox;
     private JButton solveButton;
     private JButton playButton;
     private JButton pauseButton;
@@ -22,6 +27,10 @@ public class ControlPanel extends JPanel {
     
     private JButton saveButton;
 
+    // Playback speeds offered, in solution steps per second.
+    private static final double[] SPEEDS = {1.25, 2.5, 5, 10, 25, 100, 500, 2000};
+    private static final String[] SPEED_NAMES = {"1x", "2x", "4x", "8x", "20x", "80x", "400x", "1600x"};
+
     private Consumer<Void> browseAction;
     private Consumer<Void> solveAction;
     private Consumer<Void> playAction;
@@ -53,11 +62,17 @@ public class ControlPanel extends JPanel {
         algorithmComboBox = new JComboBox<>(new String[] {
                 "Uniform Cost Search (UCS)",
                 "Greedy Best First Search (GBFS)",
-                "A* Search"
+                "A* Search",
+                "A* Search (disk-backed frontier)",
+                "Bitstate Search (approximate)",
+                "Portfolio race (first solution)",
+                "Portfolio race (optimal solution)",
+                "Beam Search (bounded width)",
+                "Auto (choose from board features)"
         });
         algorithmComboBox.addActionListener(e -> {
             int idx = algorithmComboBox.getSelectedIndex();
-            heuristicComboBox.setEnabled(idx == 1 || idx == 2);
+            heuristicComboBox.setEnabled(idx >= 1 && (idx < PathfinderFactory.PORTFOLIO || idx == PathfinderFactory.BEAM));
         });
 
         heuristicComboBox = new JComboBox<>(new String[] {
@@ -67,6 +82,11 @@ public class ControlPanel extends JPanel {
         });
         heuristicComboBox.setEnabled(false);
 
+        symmetryCheckBox = new JCheckBox("Merge symmetric states");
+        pruneCheckBox = new JCheckBox("Freeze irrelevant vehicles");
+
+        speedComboBox = new JComboBox<>(SPEED_NAMES);
+
         solveButton = new JButton("Solve");
         solveButton.addActionListener(e -> solveAction.accept(null));
 
@@ -96,11 +116,15 @@ public class ControlPanel extends JPanel {
         add(algorithmComboBox);
         add(new JLabel("Heuristic:"));
         add(heuristicComboBox);
+        add(symmetryCheckBox);
+        add(pruneCheckBox);
         add(solveButton);
         add(playButton);
         add(pauseButton);
         add(prevButton);
         add(nextButton);
+        add(new JLabel("Speed:"));
+        add(speedComboBox);
 
         
         if (saveButton != null) {
@@ -128,6 +152,22 @@ public class ControlPanel extends JPanel {
         return heuristicComboBox.getSelectedIndex();
     }
 
+    public double getStepsPerSecond() {
+        return SPEEDS[speedComboBox.getSelectedIndex()];
+    }
+
+    public void setSpeedChangedCallback(Runnable callback) {
+        speedComboBox.addActionListener(e -> callback.run());
+    }
+
+    public boolean isSymmetryReductionSelected() {
+        return symmetryCheckBox.isSelected();
+    }
+
+    public boolean isPruningSelected() {
+        return pruneCheckBox.isSelected();
+    }
+
     public void setControlsEnabled(boolean enabled) {
         solveButton.setEnabled(enabled);
         playButton.setEnabled(enabled);
@@ -1,10 +1,20 @@
 package gui;
 
-import algorithm.AStar;
+import algorithm.AutoSearch;
+import algorithm.BeamSearch;
+import algorithm.BestFirstSearch;
+import algorithm.BitstateSearch;
 import algorithm.GreedyBestFirst;
 import algorithm.HeuristicFactory;
 import algorithm.Pathfinder;
-import algorithm.UCS;
+import algorithm.PathfinderFactory;
+import algorithm.PortfolioSearch;
+import algorithm.PruningReport;
+import algorithm.RelevancePruner;
+import algorithm.SearchTrace;
+import algorithm.SolvabilityAnalyzer;
+import algorithm.SolvabilityReport;
+import algorithm.SolverMetrics;
 import java.awt.BorderLayout;
 import java.io.File;
 import java.io.IOException;
@@ -20,20 +30,27 @@ import javax.swing.Timer;
 import javax.swing.filechooser.FileNameExtensionFilter;
 import model.Board;
 import model.Move;
+import model.SolutionReplay;
 import utility.FileHandler;
 
 public class MainFrame extends JFrame {
     private ControlPanel controlPanel;
     private BoardPanel boardPanel;
+    private SearchMonitorPanel searchMonitorPanel;
     private StatusPanel statusPanel;
 
     private Board currentBoard;
+    private SolvabilityReport solvabilityReport;
     private List<Move> solutionMoves;
-    private List<Board> boardStates;
+    private SolutionReplay replay;
     private Pathfinder pathfinder;
 
+    private static final int MIN_FRAME_INTERVAL_MS = 16;
+
     private Timer animationTimer;
     private int animationStep = 0;
+    private long playbackStartNanos;
+    private int playbackStartStep;
 
     private JButton saveButton;
 
@@ -44,7 +61,7 @@ public class MainFrame extends JFrame {
         setTitle("Rush Hour Puzzle Solver");
         setDefaultCloseOperation(EXIT_ON_CLOSE);
         setLayout(new BorderLayout());
-        setSize(900, 700);
+        setSize(1180, 700);
         setLocationRelativeTo(null);
 
         saveButton = new JButton("Save Solution");
@@ -55,21 +72,39 @@ public class MainFrame extends JFrame {
                 this::onPrevClicked, this::onNextClicked, saveButton);
 
         boardPanel = new BoardPanel();
+        searchMonitorPanel = new SearchMonitorPanel();
         statusPanel = new StatusPanel(this::onPrevClicked, this::onNextClicked, this::onSaveClicked);
 
         add(controlPanel, BorderLayout.NORTH);
         add(new JScrollPane(boardPanel), BorderLayout.CENTER);
+        add(searchMonitorPanel, BorderLayout.EAST);
         add(statusPanel, BorderLayout.SOUTH);
 
-        animationTimer = new Timer(800, e -> {
-            if (boardStates != null && animationStep < boardStates.size() - 1) {
-                animationStep++;
-                updateBoardState(animationStep);
-            } else {
-                animationTimer.stop();
-                controlPanel.setPlaying(false);
-            }
-        });
+        animationTimer = new Timer(800, e -> onAnimationTick());
+        controlPanel.setSpeedChangedCallback(this::applyPlaybackSpeed);
+    }
+
+    // Playback follows the clock: each tick shows the step that is due now, so when the
+    // selected speed outruns the frame rate (or painting falls behind) steps are skipped
+    // rather than the animation slowing down.
+    private void onAnimationTick() {
+        if (replay == null || animationStep >= replay.getMoveCount()) {
+            animationTimer.stop();
+            controlPanel.setPlaying(false);
+            return;
+        }
+        long elapsed = System.nanoTime() - playbackStartNanos;
+        int due = playbackStartStep + (int) (elapsed * controlPanel.getStepsPerSecond() / 1e9);
+        animationStep = Math.min(replay.getMoveCount(), Math.max(animationStep + 1, due));
+        updateBoardState(animationStep);
+    }
+
+    private void applyPlaybackSpeed() {
+        playbackStartNanos = System.nanoTime();
+        playbackStartStep = animationStep;
+        int delay = (int) Math.round(1000 / controlPanel.getStepsPerSecond());
+        animationTimer.setDelay(Math.max(MIN_FRAME_INTERVAL_MS, delay));
+        animationTimer.setInitialDelay(animationTimer.getDelay());
     }
 
     private void onSaveClicked() {
@@ -79,19 +114,29 @@ public class MainFrame extends JFrame {
         }
 
         JFileChooser chooser = new JFileChooser();
-        chooser.setFileFilter(new FileNameExtensionFilter("Text Files", "txt"));
+        FileNameExtensionFilter textFilter = new FileNameExtensionFilter("Text Files", "txt");
+        FileNameExtensionFilter movesFilter = new FileNameExtensionFilter("Move List", "moves");
+        FileNameExtensionFilter gzipFilter = new FileNameExtensionFilter("Compressed Files", "gz");
+        chooser.addChoosableFileFilter(textFilter);
+        chooser.addChoosableFileFilter(movesFilter);
+        chooser.addChoosableFileFilter(gzipFilter);
+        chooser.setFileFilter(textFilter);
         chooser.setDialogTitle("Save Solution");
         int result = chooser.showSaveDialog(this);
 
         if (result == JFileChooser.APPROVE_OPTION) {
             String filePath = chooser.getSelectedFile().getAbsolutePath();
-            if (!filePath.endsWith(".txt")) {
+            if (chooser.getFileFilter() == movesFilter && !filePath.endsWith(".moves")) {
+                filePath += ".moves";
+            } else if (chooser.getFileFilter() == gzipFilter && !filePath.endsWith(".gz")) {
+                filePath += ".txt.gz";
+            } else if (!filePath.endsWith(".txt") && !filePath.endsWith(".moves") && !filePath.endsWith(".gz")) {
                 filePath += ".txt";
             }
 
             try {
                 long timeTaken = endTime - startTime;
-                FileHandler.saveSolutionToFile(solutionMoves, boardStates, filePath, timeTaken, pathfinder.getNodesVisited());
+                FileHandler.saveSolutionToFile(solutionMoves, replay.getStartBoard(), filePath, timeTaken, pathfinder.getNodesVisited());
                 JOptionPane.showMessageDialog(this, "Solution saved successfully to " + filePath,
                         "Success", JOptionPane.INFORMATION_MESSAGE);
             } catch (IOException ex) {
@@ -110,9 +155,15 @@ public class MainFrame extends JFrame {
             controlPanel.setFilePath(file.getAbsolutePath());
             try {
                 currentBoard = FileHandler.loadBoardFromFile(file.getAbsolutePath());
+                solvabilityReport = SolvabilityAnalyzer.analyze(currentBoard);
                 boardPanel.setBoard(currentBoard);
-                statusPanel.setStatus("Puzzle loaded. Ready to solve.");
                 resetAnimation();
+                if (solvabilityReport.isProvablyUnsolvable()) {
+                    statusPanel.setStatus("Puzzle loaded. Unsolvable: " + solvabilityReport.getReason());
+                } else {
+                    statusPanel.setStatus("Puzzle loaded. Ready to solve (at most "
+                            + solvabilityReport.getReachableStatesUpperBound() + " reachable states).");
+                }
             } catch (Exception ex) {
                 JOptionPane.showMessageDialog(this, "Failed to load puzzle:\n" + ex.getMessage(),
                         "Error", JOptionPane.ERROR_MESSAGE);
@@ -127,23 +178,23 @@ public class MainFrame extends JFrame {
             return;
         }
 
+        if (solvabilityReport != null && solvabilityReport.isProvablyUnsolvable()) {
+            statusPanel.setStatus("No solution found. " + solvabilityReport.getReason() + ".");
+            JOptionPane.showMessageDialog(this, "No solution found!\n" + solvabilityReport.getReason(),
+                    "Info", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+
         int algoIndex = controlPanel.getSelectedAlgorithmIndex();
         int heuristicIndex = controlPanel.getSelectedHeuristicIndex() + 1;
+        boolean canonicalize = controlPanel.isSymmetryReductionSelected();
+        boolean prune = controlPanel.isPruningSelected();
 
-        switch (algoIndex) {
-            case 0:
-                pathfinder = new UCS();
-                break;
-            case 1:
-                pathfinder = new GreedyBestFirst(HeuristicFactory.createHeuristic(heuristicIndex));
-                break;
-            case 2:
-                pathfinder = new AStar(HeuristicFactory.createHeuristic(heuristicIndex));
-                break;
-            default:
-                JOptionPane.showMessageDialog(this, "Invalid algorithm selection.",
-                        "Error", JOptionPane.ERROR_MESSAGE);
-                return;
+        pathfinder = PathfinderFactory.createPathfinder(algoIndex, HeuristicFactory.createHeuristic(heuristicIndex), canonicalize);
+        if (pathfinder == null) {
+            JOptionPane.showMessageDialog(this, "Invalid algorithm selection.",
+                    "Error", JOptionPane.ERROR_MESSAGE);
+            return;
         }
 
         statusPanel.setStatus("Solving...");
@@ -153,41 +204,87 @@ public class MainFrame extends JFrame {
         statusPanel.setNextEnabled(false);
         statusPanel.setSaveEnabled(false);
 
+        // Only the unified best-first engine publishes a trace; other searches run unobserved.
+        if (pathfinder instanceof BestFirstSearch) {
+            SearchTrace trace = new SearchTrace();
+            ((BestFirstSearch) pathfinder).setTrace(trace);
+            searchMonitorPanel.attach(trace, currentBoard);
+        }
+
         SwingWorker<Void, Void> worker = new SwingWorker<>() {
             List<Move> solution;
-            List<model.State> states;
+            SolutionReplay solutionReplay;
+            PruningReport pruning;
 
             @Override
             protected Void doInBackground() {
+                // The GUI stays open long enough to be watched over JMX; only the first call
+                // does anything, and it is kept out of the timing.
+                SolverMetrics.publish();
                 startTime = System.currentTimeMillis();
-                solution = pathfinder.findPath(currentBoard);
+                // Frozen vehicles stay on the board, so the solution replays on the original.
+                pruning = prune ? RelevancePruner.prune(currentBoard) : null;
+                solution = SolverMetrics.findPath(pathfinder, pruning != null ? pruning.getBoard() : currentBoard);
                 endTime = System.currentTimeMillis();
-                states = pathfinder.getSolutionStates();
+                solutionReplay = new SolutionReplay(currentBoard, solution);
                 return null;
             }
 
             @Override
             protected void done() {
+                searchMonitorPanel.detach();
                 try {
                     get();
                     solutionMoves = solution;
-                    boardStates = states.stream().map(model.State::getBoard).toList();
+                    replay = solutionReplay;
 
                     if (solutionMoves.isEmpty()) {
-                        statusPanel.setStatus("No solution found.");
+                        if (pathfinder instanceof BeamSearch && ((BeamSearch) pathfinder).isPossiblySuboptimal()) {
+                            statusPanel.setStatus("No solution found within beam width "
+                                    + ((BeamSearch) pathfinder).getBeamWidth() + "; the puzzle may still be solvable.");
+                        } else {
+                            statusPanel.setStatus("No solution found.");
+                        }
                         JOptionPane.showMessageDialog(MainFrame.this, "No solution found!",
                                 "Info", JOptionPane.INFORMATION_MESSAGE);
                         resetAnimation();
                     } else {
-                        statusPanel.setStatus("Solution found with " + solutionMoves.size() + " moves, nodes visited: " +
-                                pathfinder.getNodesVisited() + ", execution time: " + (endTime - startTime) + " ms");
+                        String status = "Solution found with " + solutionMoves.size() + " moves, nodes visited: " +
+                                pathfinder.getNodesVisited() + ", execution time: " + (endTime - startTime) + " ms";
+                        if (pathfinder instanceof GreedyBestFirst) {
+                            GreedyBestFirst gbfs = (GreedyBestFirst) pathfinder;
+                            if (gbfs.getEvictions() > 0) {
+                                status += ", evictions: " + gbfs.getEvictions() + ", re-expansions: " + gbfs.getReExpansions();
+                            }
+                        }
+                        if (pathfinder instanceof BitstateSearch) {
+                            BitstateSearch bitstate = (BitstateSearch) pathfinder;
+                            status += String.format(", coverage: %.4f%%, collision probability: %.2e",
+                                    bitstate.getEstimatedCoverage() * 100, bitstate.getCollisionProbability());
+                        }
+                        if (pruning != null) {
+                            status += ", " + pruning.getFrozenPieces().size() + " vehicles frozen";
+                        }
+                        if (pathfinder instanceof BeamSearch) {
+                            BeamSearch beam = (BeamSearch) pathfinder;
+                            status += ", beam width: " + beam.getBeamWidth()
+                                    + (beam.isPossiblySuboptimal() ? " (may be suboptimal)" : " (optimal)");
+                        }
+                        if (pathfinder instanceof PortfolioSearch) {
+                            status += ", won by " + ((PortfolioSearch) pathfinder).getWinner();
+                        }
+                        if (pathfinder instanceof AutoSearch) {
+                            AutoSearch auto = (AutoSearch) pathfinder;
+                            status += ", auto chose " + auto.getChoice() + " for " + auto.getFeatures();
+                        }
+                        statusPanel.setStatus(status);
                         animationStep = 0;
-                        boardPanel.setBoard(boardStates.get(0));
+                        boardPanel.setBoard(replay.getStartBoard());
                         controlPanel.setControlsEnabled(true);
                         controlPanel.setPlaying(false);
                         saveButton.setEnabled(true);
                         statusPanel.setPrevEnabled(false);
-                        statusPanel.setNextEnabled(boardStates.size() > 1);
+                        statusPanel.setNextEnabled(replay.getMoveCount() > 0);
                         statusPanel.setSaveEnabled(true);
                     }
                 } catch (Exception e) {
@@ -202,6 +299,7 @@ public class MainFrame extends JFrame {
     }
 
     private void onPlayClicked() {
+        applyPlaybackSpeed();
         animationTimer.start();
         controlPanel.setPlaying(true);
         statusPanel.setPrevEnabled(false);
@@ -212,33 +310,36 @@ public class MainFrame extends JFrame {
         animationTimer.stop();
         controlPanel.setPlaying(false);
         statusPanel.setPrevEnabled(animationStep > 0);
-        statusPanel.setNextEnabled(boardStates != null && animationStep < boardStates.size() - 1);
+        statusPanel.setNextEnabled(replay != null && animationStep < replay.getMoveCount());
     }
 
     private void onNextClicked() {
-        if (boardStates == null || animationStep >= boardStates.size() - 1) return;
+        if (replay == null || animationStep >= replay.getMoveCount()) return;
         animationStep++;
         updateBoardState(animationStep);
     }
 
     private void onPrevClicked() {
-        if (boardStates == null || animationStep <= 0) return;
+        if (replay == null || animationStep <= 0) return;
         animationStep--;
         updateBoardState(animationStep);
     }
 
     private void updateBoardState(int step) {
-        boardPanel.setBoard(boardStates.get(step));
-        statusPanel.setStatus("Step " + step + " / " + (boardStates.size() - 1));
+        replay.seek(step);
+        // The panel diffs against the board it was last given, so it gets a snapshot of the
+        // cursor's board rather than the board itself; snapshots share unchanged rows.
+        boardPanel.setBoard(replay.getBoard().copy());
+        statusPanel.setStatus("Step " + step + " / " + replay.getMoveCount());
         statusPanel.setPrevEnabled(step > 0);
-        statusPanel.setNextEnabled(step < boardStates.size() - 1);
+        statusPanel.setNextEnabled(step < replay.getMoveCount());
     }
 
     private void resetAnimation() {
         animationTimer.stop();
         animationStep = 0;
         solutionMoves = null;
-        boardStates = null;
+        replay = null;
         controlPanel.setControlsEnabled(true);
         controlPanel.setPlaying(false);
         saveButton.setEnabled(false);
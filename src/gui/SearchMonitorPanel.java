@@ -0,0 +1,193 @@
+package gui;
+
+import algorithm.SearchTrace;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.swing.JPanel;
+import javax.swing.Timer;
+import model.Board;
+import model.Move;
+import model.State;
+
+// Live view of a running search, fed by a SearchTrace drained on the Swing timer: a heatmap of
+// how often each cell's occupant changed across expanded nodes, sparklines of frontier size and
+// priority, and the partial path to the most promising state expanded so far.
+public class SearchMonitorPanel extends JPanel implements SearchTrace.Listener {
+    private static final int REFRESH_MS = 100;
+    private static final int HISTORY = 240;
+    private static final int MARGIN = 10;
+
+    private final Timer refreshTimer;
+    private SearchTrace trace;
+    private int width;
+    private int height;
+    private long[][] heat;
+    private long maxHeat;
+    private long dropped;
+
+    // Last sample seen in each refresh, for the sparklines.
+    private int latestFrontier;
+    private int latestPriority;
+    private final int[] frontierHistory = new int[HISTORY];
+    private final int[] priorityHistory = new int[HISTORY];
+    private int historySize;
+
+    public SearchMonitorPanel() {
+        setPreferredSize(new Dimension(280, 600));
+        setBackground(Color.WHITE);
+        refreshTimer = new Timer(REFRESH_MS, e -> refresh());
+    }
+
+    public void attach(SearchTrace trace, Board board) {
+        this.trace = trace;
+        this.width = board.getWidth();
+        this.height = board.getHeight();
+        this.heat = new long[height][width];
+        this.maxHeat = 0;
+        this.dropped = 0;
+        this.historySize = 0;
+        refreshTimer.start();
+        repaint();
+    }
+
+    // Reads what is left of the trace and keeps showing it until the next attach.
+    public void detach() {
+        refreshTimer.stop();
+        refresh();
+    }
+
+    private void refresh() {
+        if (trace == null) {
+            return;
+        }
+        long before = trace.getExpansions();
+        dropped += trace.drain(this);
+        if (trace.getExpansions() != before || historySize == 0) {
+            if (historySize == HISTORY) {
+                System.arraycopy(frontierHistory, 1, frontierHistory, 0, HISTORY - 1);
+                System.arraycopy(priorityHistory, 1, priorityHistory, 0, HISTORY - 1);
+                historySize--;
+            }
+            frontierHistory[historySize] = latestFrontier;
+            priorityHistory[historySize] = latestPriority;
+            historySize++;
+        }
+        repaint();
+    }
+
+    @Override
+    public void onExpansion(boolean horizontal, int lane, int fromOffset, int toOffset, int length,
+                            int priority, int frontierSize) {
+        latestFrontier = frontierSize;
+        latestPriority = priority;
+        if (length == 0) {
+            return;
+        }
+        // Cells covered before or after the slide but not both changed occupant.
+        int low = Math.min(fromOffset, toOffset);
+        int high = Math.max(fromOffset, toOffset) + length;
+        for (int offset = low; offset < high; offset++) {
+            boolean before = offset >= fromOffset && offset < fromOffset + length;
+            boolean after = offset >= toOffset && offset < toOffset + length;
+            if (before != after) {
+                int r = horizontal ? lane : offset;
+                int c = horizontal ? offset : lane;
+                if (r >= 0 && r < height && c >= 0 && c < width) {
+                    maxHeat = Math.max(maxHeat, ++heat[r][c]);
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        Graphics2D g2 = (Graphics2D) g;
+        g2.setFont(getFont().deriveFont(Font.PLAIN, 12f));
+        FontMetrics fm = g2.getFontMetrics();
+        int panelWidth = getWidth() - 2 * MARGIN;
+        int y = MARGIN + fm.getAscent();
+
+        if (trace == null) {
+            g2.setColor(Color.GRAY);
+            g2.drawString("Search view appears while solving.", MARGIN, y);
+            return;
+        }
+
+        g2.setColor(Color.BLACK);
+        g2.drawString("Expanded: " + trace.getExpansions() + (dropped > 0 ? "  (unsampled: " + dropped + ")" : ""), MARGIN, y);
+        y += 6;
+
+        // Heatmap, log-scaled so a few hot lanes don't wash out the rest.
+        int cell = Math.max(1, Math.min(panelWidth / Math.max(1, width), 200 / Math.max(1, height)));
+        double scale = Math.log1p(Math.max(1, maxHeat));
+        for (int r = 0; r < height; r++) {
+            for (int c = 0; c < width; c++) {
+                float level = (float) (Math.log1p(heat[r][c]) / scale);
+                g2.setColor(new Color(1f, 1f - level, 1f - level * 0.8f));
+                g2.fillRect(MARGIN + c * cell, y + r * cell, cell, cell);
+            }
+        }
+        g2.setColor(Color.LIGHT_GRAY);
+        g2.drawRect(MARGIN, y, width * cell, height * cell);
+        y += height * cell + 14 + fm.getAscent();
+
+        y = drawSparkline(g2, "Frontier: " + latestFrontier, frontierHistory, Color.BLUE, y, panelWidth, fm);
+        y = drawSparkline(g2, "Priority: " + latestPriority, priorityHistory, Color.ORANGE.darker(), y, panelWidth, fm);
+
+        State best = trace.getBestState();
+        if (best != null) {
+            List<Move> path = new ArrayList<>();
+            for (State s = best; s.getParent() != null; s = s.getParent()) {
+                path.add(s.getMoveMade());
+            }
+            Collections.reverse(path);
+            g2.setColor(Color.BLACK);
+            g2.drawString("Best partial path (h=" + best.getHeuristicValue() + ", g=" + best.getCost() + "):", MARGIN, y);
+            y += fm.getHeight();
+            StringBuilder line = new StringBuilder();
+            for (Move move : path) {
+                String text = move + "  ";
+                if (fm.stringWidth(line + text) > panelWidth && line.length() > 0) {
+                    g2.drawString(line.toString(), MARGIN, y);
+                    y += fm.getHeight();
+                    line.setLength(0);
+                    if (y > getHeight() - MARGIN) {
+                        return;
+                    }
+                }
+                line.append(text);
+            }
+            g2.drawString(line.length() > 0 ? line.toString() : "(initial state)", MARGIN, y);
+        }
+    }
+
+    private int drawSparkline(Graphics2D g2, String title, int[] values, Color color, int y, int panelWidth, FontMetrics fm) {
+        g2.setColor(Color.BLACK);
+        g2.drawString(title, MARGIN, y);
+        y += 4;
+        int chartHeight = 40;
+        int max = 1;
+        for (int i = 0; i < historySize; i++) {
+            max = Math.max(max, values[i]);
+        }
+        g2.setColor(Color.LIGHT_GRAY);
+        g2.drawRect(MARGIN, y, panelWidth, chartHeight);
+        g2.setColor(color);
+        for (int i = 1; i < historySize; i++) {
+            int x1 = MARGIN + (i - 1) * panelWidth / (HISTORY - 1);
+            int x2 = MARGIN + i * panelWidth / (HISTORY - 1);
+            int y1 = y + chartHeight - values[i - 1] * chartHeight / max;
+            int y2 = y + chartHeight - values[i] * chartHeight / max;
+            g2.drawLine(x1, y1, x2, y2);
+        }
+        return y + chartHeight + 14 + fm.getAscent();
+    }
+}
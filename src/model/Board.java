@@ -1,9 +1,14 @@
 package model;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
 public class Board {
+    // Move generation keeps each row's and column's occupancy in one long, so neither side
+    // may be longer than 64 cells. The file and corpus readers reject larger boards.
+    public static final int MAX_DIMENSION = 64;
+
     private int width;
     private int height;
     private Map<Character, Piece> pieces;
@@ -12,15 +17,36 @@ public class Board {
     private boolean exitOnRight;
     private boolean exitOnBottom;
     private char primaryPieceId;
+    // Occupancy by row. Rows are shared between copies and never written in place:
+    // a change clones just the rows it touches, so copy() costs O(height + pieces).
+    private char[][] cells;
+    // Zobrist hash of the placement: the XOR of one key per (piece, offset), kept current
+    // by relocate() so a move costs two XORs rather than rehashing the whole board.
+    private long zobristHash;
+    // Piece ids in ascending order, fixing the layout of getPlacement(). Shared between copies.
+    private char[] pieceOrder = new char[0];
 
     public Board(int width, int height) {
         this.width = width;
         this.height = height;
         this.pieces = new HashMap<>();
+        this.cells = new char[height][width];
+        for (char[] row : cells) {
+            Arrays.fill(row, '.');
+        }
+    }
+
+    private Board(Board other) {
+        this.width = other.width;
+        this.height = other.height;
+        this.pieces = new HashMap<>(other.pieces.size() * 4 / 3 + 1);
+        this.cells = other.cells.clone();
+        this.zobristHash = other.zobristHash;
+        this.pieceOrder = other.pieceOrder;
     }
 
     public Board copy() {
-        Board newBoard = new Board(width, height);
+        Board newBoard = new Board(this);
         newBoard.exitRow = exitRow;
         newBoard.exitCol = exitCol;
         newBoard.exitOnRight = exitOnRight;
@@ -36,7 +62,18 @@ public class Board {
     }
 
     public void addPiece(Piece piece) {
-        pieces.put(piece.getId(), piece);
+        Piece previous = pieces.put(piece.getId(), piece);
+        if (previous != null) {
+            paint(previous, '.');
+            zobristHash ^= zobristKey(previous);
+        } else {
+            char[] order = Arrays.copyOf(pieceOrder, pieceOrder.length + 1);
+            order[pieceOrder.length] = piece.getId();
+            Arrays.sort(order);
+            pieceOrder = order;
+        }
+        paint(piece, piece.getId());
+        zobristHash ^= zobristKey(piece);
         if (piece.isPrimary()) {
             primaryPieceId = piece.getId();
         }
@@ -85,21 +122,69 @@ public class Board {
         }
         if (piece.isPrimary() && piece.isHorizontal() && exitOnRight && newCol + piece.getLength() > width) {
             if (exitRow == piece.getRow()) {
-                piece.setCol(newCol);
+                relocate(piece, piece.getRow(), newCol);
                 return true;
             }
             return false;
         } else if (piece.isPrimary() && !piece.isHorizontal() && exitOnBottom && newRow + piece.getLength() > height) {
             if (exitCol == piece.getCol()) {
-                piece.setRow(newRow);
+                relocate(piece, newRow, piece.getCol());
                 return true;
             }
             return false;
         }
 
+        relocate(piece, newRow, newCol);
+        return true;
+    }
+
+    // Moves a piece without checking the move; callers must already know it is legal.
+    public void placePiece(char pieceId, int row, int col) {
+        relocate(pieces.get(pieceId), row, col);
+    }
+
+    private void relocate(Piece piece, int newRow, int newCol) {
+        paint(piece, '.');
+        zobristHash ^= zobristKey(piece);
         piece.setRow(newRow);
         piece.setCol(newCol);
-        return true;
+        zobristHash ^= zobristKey(piece);
+        paint(piece, piece.getId());
+    }
+
+    // A piece only ever slides along its own lane, so its offset in that lane identifies its
+    // position. Keys come from a SplitMix64 finaliser rather than a table so that any board
+    // size and any piece id get a fixed pseudo-random key without allocation.
+    private static long zobristKey(Piece piece) {
+        int offset = piece.isHorizontal() ? piece.getCol() : piece.getRow();
+        long z = ((long) piece.getId() << 32 | (offset & 0xFFFFFFFFL)) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private void paint(Piece piece, char value) {
+        if (piece.isHorizontal()) {
+            int r = piece.getRow();
+            if (r < 0 || r >= height) {
+                return;
+            }
+            char[] row = cells[r].clone();
+            for (int c = Math.max(0, piece.getCol()); c < Math.min(width, piece.getCol() + piece.getLength()); c++) {
+                row[c] = value;
+            }
+            cells[r] = row;
+        } else {
+            int c = piece.getCol();
+            if (c < 0 || c >= width) {
+                return;
+            }
+            for (int r = Math.max(0, piece.getRow()); r < Math.min(height, piece.getRow() + piece.getLength()); r++) {
+                char[] row = cells[r].clone();
+                row[c] = value;
+                cells[r] = row;
+            }
+        }
     }
 
     private boolean isValidMove(Piece piece, int newRow, int newCol) {
@@ -119,22 +204,11 @@ public class Board {
             }
         }
 
-        for (int r = 0; r < height; r++) {
-            for (int c = 0; c < width; c++) {
-                boolean wouldOccupy = false;
-                if (piece.isHorizontal()) {
-                    wouldOccupy = r == newRow && c >= newCol && c < newCol + piece.getLength();
-                } else {
-                    wouldOccupy = c == newCol && r >= newRow && r < newRow + piece.getLength();
-                }
-
-                if (wouldOccupy) {
-                    for (Piece otherPiece : pieces.values()) {
-                        if (otherPiece.getId() != piece.getId() && otherPiece.occupies(r, c)) {
-                            return false;
-                        }
-                    }
-                }
+        for (int i = 0; i < piece.getLength(); i++) {
+            int r = piece.isHorizontal() ? newRow : newRow + i;
+            int c = piece.isHorizontal() ? newCol + i : newCol;
+            if (r < height && c < width && cells[r][c] != '.' && cells[r][c] != piece.getId()) {
+                return false;
             }
         }
 
@@ -176,21 +250,52 @@ public class Board {
     }
 
     public char getCell(int row, int col) {
+        if (row < 0 || row >= height || col < 0 || col >= width) {
+            return '.';
+        }
+        return cells[row][col];
+    }
+
+    public long getZobristHash() {
+        return zobristHash;
+    }
+
+    // Full comparison for when two boards of the same puzzle share a Zobrist hash.
+    public boolean hasSamePlacement(Board other) {
+        if (pieces.size() != other.pieces.size()) {
+            return false;
+        }
         for (Piece piece : pieces.values()) {
-            if (piece.occupies(row, col)) {
-                return piece.getId();
+            Piece otherPiece = other.pieces.get(piece.getId());
+            if (otherPiece == null || otherPiece.getRow() != piece.getRow() || otherPiece.getCol() != piece.getCol()) {
+                return false;
             }
         }
-        return '.';
+        return true;
+    }
+
+    // Each piece's offset along its lane, in piece id order: enough to tell apart two boards
+    // of the same puzzle without holding on to either. Offsets fit in a byte because sides
+    // are at most MAX_DIMENSION cells.
+    public byte[] getPlacement() {
+        byte[] placement = new byte[pieceOrder.length];
+        for (int i = 0; i < pieceOrder.length; i++) {
+            Piece piece = pieces.get(pieceOrder[i]);
+            placement[i] = (byte) (piece.isHorizontal() ? piece.getCol() : piece.getRow());
+        }
+        return placement;
+    }
+
+    public String getLabel(char pieceId) {
+        Piece piece = pieces.get(pieceId);
+        return piece != null ? piece.getLabel() : String.valueOf(pieceId);
     }
 
     @Override
     public String toString() {
-        StringBuilder sb = new StringBuilder();
+        StringBuilder sb = new StringBuilder(height * (width + 1));
         for (int r = 0; r < height; r++) {
-            for (int c = 0; c < width; c++) {
-                sb.append(getCell(r, c));
-            }
+            sb.append(cells[r]);
             if (r < height - 1) {
                 sb.append('\n');
             }
@@ -4,9 +4,15 @@ public class Move {
     private char pieceId;
     private String direction;
     private int steps;
+    private String label;
 
     public Move(char pieceId, String direction, int steps) {
+        this(pieceId, null, direction, steps);
+    }
+
+    public Move(char pieceId, String label, String direction, int steps) {
         this.pieceId = pieceId;
+        this.label = label;
         this.direction = direction;
         this.steps = steps;
     }
@@ -15,6 +21,10 @@ public class Move {
         return pieceId;
     }
 
+    public String getLabel() {
+        return label != null ? label : String.valueOf(pieceId);
+    }
+
     public String getDirection() {
         return direction;
     }
@@ -25,6 +35,6 @@ public class Move {
 
     @Override
     public String toString() {
-        return pieceId + "-" + direction + (steps > 1 ? " " + steps : "");
+        return getLabel() + "-" + direction + (steps > 1 ? " " + steps : "");
     }
 }
@@ -7,9 +7,19 @@ public class Piece {
     private int length;
     private boolean isHorizontal;
     private boolean isPrimary;
+    private String label;
+    // A frozen piece stays where it is: it still blocks others, but no moves are generated for it.
+    private boolean frozen;
 
     public Piece(char id, int row, int col, int length, boolean isHorizontal, boolean isPrimary) {
+        this(id, String.valueOf(id), row, col, length, isHorizontal, isPrimary);
+    }
+
+    // The label is what the puzzle file calls the piece; it can be longer than one character,
+    // in which case the loader gives the piece an id outside the printable range.
+    public Piece(char id, String label, int row, int col, int length, boolean isHorizontal, boolean isPrimary) {
         this.id = id;
+        this.label = label;
         this.row = row;
         this.col = col;
         this.length = length;
@@ -18,13 +28,19 @@ public class Piece {
     }
 
     public Piece copy() {
-        return new Piece(id, row, col, length, isHorizontal, isPrimary);
+        Piece piece = new Piece(id, label, row, col, length, isHorizontal, isPrimary);
+        piece.frozen = frozen;
+        return piece;
     }
 
     public char getId() {
         return id;
     }
 
+    public String getLabel() {
+        return label;
+    }
+
     public int getRow() {
         return row;
     }
@@ -53,6 +69,14 @@ public class Piece {
         return isPrimary;
     }
 
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    public void setFrozen(boolean frozen) {
+        this.frozen = frozen;
+    }
+
     public boolean occupies(int r, int c) {
         if (isHorizontal) {
             return r == row && c >= col && c < col + length;
@@ -63,6 +87,6 @@ public class Piece {
 
     @Override
     public String toString() {
-        return id + (isPrimary ? "(P)" : "") + "[" + row + "," + col + "]";
+        return label + (isPrimary ? "(P)" : "") + "[" + row + "," + col + "]";
     }
 }
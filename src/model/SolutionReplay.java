@@ -0,0 +1,148 @@
+package model;
+
+import java.util.List;
+
+// A solution kept as its start board plus one int per move (piece id and signed slide), with
+// a single working board that the cursor steps forwards or backwards in place. Every
+// CHECKPOINT_INTERVAL steps the piece offsets are recorded, so seeking to any step replays at
+// most that many moves. Memory is O(moves + pieces * moves / interval) rather than a board
+// per step.
+public class SolutionReplay {
+    private static final int CHECKPOINT_INTERVAL = 64;
+
+    private final Board startBoard;
+    private final Board board;
+    private final int[] moves;
+    private final char[] pieceIds;
+    // Lane offset of each piece (in pieceIds order) at every CHECKPOINT_INTERVAL-th step.
+    private final int[][] checkpoints;
+    private int step;
+
+    // Throws IllegalArgumentException if a move is not legal where it is played.
+    public SolutionReplay(Board start, List<Move> solution) {
+        this.startBoard = start.copy();
+        this.board = start.copy();
+        this.moves = new int[solution.size()];
+        this.pieceIds = new char[start.getPieces().size()];
+        this.checkpoints = new int[solution.size() / CHECKPOINT_INTERVAL + 1][];
+        int i = 0;
+        for (char id : start.getPieces().keySet()) {
+            pieceIds[i++] = id;
+        }
+
+        checkpoints[0] = offsets();
+        for (i = 0; i < moves.length; i++) {
+            Move move = solution.get(i);
+            if (!board.movePiece(move.getPieceId(), move.getDirection(), move.getSteps())) {
+                throw new IllegalArgumentException("Move " + (i + 1) + " (" + move + ") is not legal");
+            }
+            int delta = move.getDirection().equals("left") || move.getDirection().equals("up") ? -move.getSteps() : move.getSteps();
+            moves[i] = move.getPieceId() << 16 | (delta & 0xFFFF);
+            if ((i + 1) % CHECKPOINT_INTERVAL == 0) {
+                checkpoints[(i + 1) / CHECKPOINT_INTERVAL] = offsets();
+            }
+        }
+        step = moves.length;
+        seek(0);
+    }
+
+    public int getMoveCount() {
+        return moves.length;
+    }
+
+    public int getStep() {
+        return step;
+    }
+
+    // The board at the current step. It is changed in place by the cursor methods, so callers
+    // that keep it across steps must copy it.
+    public Board getBoard() {
+        return board;
+    }
+
+    public Board getStartBoard() {
+        return startBoard;
+    }
+
+    // The move that leads from step index to step index + 1.
+    public Move getMove(int index) {
+        char id = (char) (moves[index] >>> 16);
+        int delta = (short) moves[index];
+        Piece piece = startBoard.getPieces().get(id);
+        String direction = piece.isHorizontal() ? (delta > 0 ? "right" : "left") : (delta > 0 ? "down" : "up");
+        return new Move(id, piece.getLabel(), direction, Math.abs(delta));
+    }
+
+    public boolean stepForward() {
+        if (step >= moves.length) {
+            return false;
+        }
+        slide(moves[step], 1);
+        step++;
+        return true;
+    }
+
+    public boolean stepBack() {
+        if (step <= 0) {
+            return false;
+        }
+        step--;
+        slide(moves[step], -1);
+        return true;
+    }
+
+    // Walks from the current step when that is no further than from the target's checkpoint.
+    public void seek(int target) {
+        if (target < 0 || target > moves.length) {
+            throw new IndexOutOfBoundsException("Step " + target + " of " + moves.length);
+        }
+        int checkpoint = target / CHECKPOINT_INTERVAL;
+        int fromCheckpoint = target - checkpoint * CHECKPOINT_INTERVAL;
+        if (Math.abs(target - step) > fromCheckpoint) {
+            restore(checkpoint);
+        }
+        while (step < target) {
+            stepForward();
+        }
+        while (step > target) {
+            stepBack();
+        }
+    }
+
+    private void slide(int move, int sign) {
+        char id = (char) (move >>> 16);
+        int delta = (short) move * sign;
+        Piece piece = board.getPieces().get(id);
+        if (piece.isHorizontal()) {
+            board.placePiece(id, piece.getRow(), piece.getCol() + delta);
+        } else {
+            board.placePiece(id, piece.getRow() + delta, piece.getCol());
+        }
+    }
+
+    private void restore(int checkpoint) {
+        int[] offsets = checkpoints[checkpoint];
+        // Lift every piece first so that no piece is painted over one that has yet to move.
+        for (int i = 0; i < pieceIds.length; i++) {
+            board.placePiece(pieceIds[i], -board.getHeight() - 1, -board.getWidth() - 1);
+        }
+        for (int i = 0; i < pieceIds.length; i++) {
+            Piece piece = startBoard.getPieces().get(pieceIds[i]);
+            if (piece.isHorizontal()) {
+                board.placePiece(pieceIds[i], piece.getRow(), offsets[i]);
+            } else {
+                board.placePiece(pieceIds[i], offsets[i], piece.getCol());
+            }
+        }
+        step = checkpoint * CHECKPOINT_INTERVAL;
+    }
+
+    private int[] offsets() {
+        int[] offsets = new int[pieceIds.length];
+        for (int i = 0; i < pieceIds.length; i++) {
+            Piece piece = board.getPieces().get(pieceIds[i]);
+            offsets[i] = piece.isHorizontal() ? piece.getCol() : piece.getRow();
+        }
+        return offsets;
+    }
+}
@@ -107,11 +107,11 @@ public class State {
         if (this == obj) return true;
         if (obj == null || getClass() != obj.getClass()) return false;
         State other = (State) obj;
-        return getStateKey().equals(other.getStateKey());
+        return board.getZobristHash() == other.board.getZobristHash() && board.hasSamePlacement(other.board);
     }
     
     @Override
     public int hashCode() {
-        return getStateKey().hashCode();
+        return Long.hashCode(board.getZobristHash());
     }
 }
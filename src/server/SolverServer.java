@@ -0,0 +1,392 @@
+package server;
+
+import algorithm.AutoSearch;
+import algorithm.BeamSearch;
+import algorithm.BestFirstSearch;
+import algorithm.BitstateSearch;
+import algorithm.HeuristicFactory;
+import algorithm.Pathfinder;
+import algorithm.PathfinderFactory;
+import algorithm.PortfolioSearch;
+import algorithm.RelevancePruner;
+import algorithm.SearchResult;
+import algorithm.SolverMetrics;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import model.Board;
+import model.Move;
+import utility.FileHandler;
+import utility.Json;
+import utility.PuzzleCorpus;
+
+// Long-running solver on the loopback interface, so tools that solve many puzzles pay for JVM
+// start-up and JIT warm-up once. POST /solve takes a puzzle (file format or one corpus line)
+// with optional algorithm, heuristic, symmetry and prune query parameters and answers with JSON.
+// Identical requests that arrive while one is being solved wait for that solve instead of
+// starting another, and recent answers are kept in an LRU cache. GET /stats reports counters.
+public class SolverServer {
+    private static final String USAGE = String.join("\n",
+            "Usage: java Main --serve [--port N] [--threads N] [--cache N]",
+            "  --port N      port on the loopback interface (default 8765)",
+            "  --threads N   concurrent solves (default: available processors)",
+            "  --cache N     results kept for repeated requests (default 4096)");
+    private static final int MAX_BODY_BYTES = 1 << 20;
+
+    private final ExecutorService solvers;
+    private final Map<String, CompletableFuture<Result>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Result> cache;
+    // One UCS, GBFS or A* instance per configuration serves every solver thread.
+    private final Map<String, Pathfinder> sharedPathfinders = new ConcurrentHashMap<>();
+    private HttpServer server;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong solves = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    public SolverServer(int solverThreads, int cacheSize) {
+        this.solvers = Executors.newFixedThreadPool(solverThreads, runnable -> {
+            Thread thread = new Thread(runnable, "solver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Result> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    public static int run(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        int port = 8765;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int cacheSize = 4096;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--port":
+                        port = Integer.parseInt(args[++i]);
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(args[++i]);
+                        break;
+                    case "--cache":
+                        cacheSize = Integer.parseInt(args[++i]);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+            if (threads < 1 || cacheSize < 0) {
+                throw new IllegalArgumentException("Thread count and cache size must be positive");
+            }
+        } catch (RuntimeException e) {
+            System.err.println(e instanceof ArrayIndexOutOfBoundsException ? "Missing option value" : e.getMessage());
+            System.err.println(USAGE);
+            return 2;
+        }
+
+        SolverServer solverServer = new SolverServer(threads, cacheSize);
+        try {
+            solverServer.start(port);
+        } catch (IOException e) {
+            System.err.println("Cannot start server: " + e.getMessage());
+            return 1;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(solverServer::stop));
+        System.err.println("Solver listening on http://" + InetAddress.getLoopbackAddress().getHostAddress()
+                + ":" + solverServer.getPort() + "/solve");
+        // The server's dispatcher thread keeps the JVM running after this returns.
+        return 0;
+    }
+
+    public void start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        // Handler threads mostly wait on a solve, so they are cheap to have many of; the
+        // CPU-bound work is bounded by the solver pool.
+        server.setExecutor(Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "solver-http");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        server.createContext("/solve", this::handleSolve);
+        server.createContext("/stats", this::handleStats);
+        SolverMetrics.publish();
+        server.start();
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+        }
+        solvers.shutdownNow();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handleSolve(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("POST")) {
+                respond(exchange, 405, error("Use POST with the puzzle as the request body"));
+                return;
+            }
+            requests.incrementAndGet();
+
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            int algorithm = PathfinderFactory.typeForName(query.getOrDefault("algorithm", "astar"));
+            int heuristic = HeuristicFactory.typeForName(query.getOrDefault("heuristic", "blocking"));
+            boolean symmetry = Boolean.parseBoolean(query.getOrDefault("symmetry", "false"));
+            boolean prune = Boolean.parseBoolean(query.getOrDefault("prune", "false"));
+            if (algorithm < 0 || heuristic < 0) {
+                respond(exchange, 400, error("Unknown algorithm or heuristic"));
+                return;
+            }
+
+            String body = readBody(exchange.getRequestBody());
+            if (body == null) {
+                respond(exchange, 413, error("Puzzle is larger than " + MAX_BODY_BYTES + " bytes"));
+                return;
+            }
+            Board board;
+            try {
+                board = parsePuzzle(body);
+            } catch (IOException | RuntimeException e) {
+                respond(exchange, 400, error("Cannot read puzzle: " + e.getMessage()));
+                return;
+            }
+
+            String key = algorithm + "/" + heuristic + "/" + symmetry + "/" + prune + "\n" + puzzleKey(board, body);
+            String source = "solved";
+            Result result;
+            synchronized (cache) {
+                result = cache.get(key);
+            }
+            if (result != null) {
+                cacheHits.incrementAndGet();
+                SolverMetrics.recordCacheLookup(true);
+                source = "cache";
+            } else {
+                CompletableFuture<Result> pending = new CompletableFuture<>();
+                CompletableFuture<Result> existing = inFlight.putIfAbsent(key, pending);
+                if (existing != null) {
+                    coalesced.incrementAndGet();
+                    SolverMetrics.recordCacheLookup(true);
+                    source = "coalesced";
+                    pending = existing;
+                } else {
+                    // The solve this request missed may have finished since the cache lookup.
+                    Result finished;
+                    synchronized (cache) {
+                        finished = cache.get(key);
+                    }
+                    if (finished != null) {
+                        cacheHits.incrementAndGet();
+                        SolverMetrics.recordCacheLookup(true);
+                        source = "cache";
+                        pending.complete(finished);
+                        inFlight.remove(key, pending);
+                    } else {
+                        SolverMetrics.recordCacheLookup(false);
+                        submit(key, board, algorithm, heuristic, symmetry, prune, pending);
+                    }
+                }
+                try {
+                    result = pending.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    respond(exchange, 503, error("Interrupted"));
+                    return;
+                } catch (ExecutionException e) {
+                    respond(exchange, 500, error("Solver failed: " + e.getCause()));
+                    return;
+                }
+            }
+            respond(exchange, 200, result.toJson(source));
+        }
+    }
+
+    private Pathfinder pathfinderFor(int algorithm, int heuristic, boolean symmetry) {
+        Pathfinder pathfinder = PathfinderFactory.createPathfinder(algorithm, HeuristicFactory.createHeuristic(heuristic), symmetry);
+        if (!(pathfinder instanceof BestFirstSearch)) {
+            return pathfinder;
+        }
+        return sharedPathfinders.computeIfAbsent(algorithm + "/" + heuristic + "/" + symmetry, key -> pathfinder);
+    }
+
+    private void submit(String key, Board board, int algorithm, int heuristic, boolean symmetry, boolean prune,
+                        CompletableFuture<Result> pending) {
+        solvers.execute(() -> {
+            try {
+                solves.incrementAndGet();
+                Pathfinder pathfinder = pathfinderFor(algorithm, heuristic, symmetry);
+                long start = System.nanoTime();
+                SearchResult outcome = SolverMetrics.solve(pathfinder, prune ? RelevancePruner.prune(board).getBoard() : board);
+                long elapsed = System.nanoTime() - start;
+                boolean solved = !outcome.getMoves().isEmpty() || board.canPrimaryPieceExit();
+                BitstateSearch bitstate = pathfinder instanceof BitstateSearch ? (BitstateSearch) pathfinder : null;
+                // As in the batch solver: a beam that dropped states or a bitstate run finding
+                // nothing is not a proof that the puzzle has no solution.
+                boolean approximate = bitstate != null
+                        || (pathfinder instanceof BeamSearch && ((BeamSearch) pathfinder).isPossiblySuboptimal());
+                Result result = new Result(solved, approximate, outcome.getMoves(), outcome.getNodesVisited(), elapsed,
+                        bitstate != null ? bitstate.getEstimatedCoverage() : Double.NaN,
+                        bitstate != null ? bitstate.getCollisionProbability() : Double.NaN);
+                // Cached before leaving the in-flight map, so a request never misses both.
+                synchronized (cache) {
+                    cache.put(key, result);
+                }
+                pending.complete(result);
+            } catch (Throwable t) {
+                pending.completeExceptionally(t);
+            } finally {
+                inFlight.remove(key, pending);
+            }
+        });
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            int cached;
+            synchronized (cache) {
+                cached = cache.size();
+            }
+            respond(exchange, 200, "{\"requests\":" + requests.get() + ",\"solves\":" + solves.get()
+                    + ",\"cache_hits\":" + cacheHits.get() + ",\"coalesced\":" + coalesced.get()
+                    + ",\"in_flight\":" + inFlight.size() + ",\"cached_results\":" + cached
+                    + ",\"portfolio_wins\":" + countsJson(PortfolioSearch.getWinCounts())
+                    + ",\"auto_choices\":" + countsJson(AutoSearch.getChoiceCounts()) + "}");
+        }
+    }
+
+    private static String countsJson(Map<String, Long> counts) {
+        StringBuilder sb = new StringBuilder("{");
+        for (Map.Entry<String, Long> entry : counts.entrySet()) {
+            if (sb.length() > 1) {
+                sb.append(',');
+            }
+            Json.appendQuoted(sb, entry.getKey());
+            sb.append(':').append(entry.getValue());
+        }
+        return sb.append('}').toString();
+    }
+
+    // A single line with the exit on it is a corpus line; anything else is the file format.
+    private static Board parsePuzzle(String body) throws IOException {
+        String trimmed = body.trim();
+        if (trimmed.indexOf('\n') < 0 && trimmed.split("\\s+").length >= 5) {
+            return PuzzleCorpus.parseLine(trimmed);
+        }
+        return FileHandler.readBoard(new BufferedReader(new StringReader(body)));
+    }
+
+    // Puzzles written differently (spacing, file versus corpus format) share a key when the
+    // board allows a corpus encoding; boards with long labels fall back to the request text.
+    private static String puzzleKey(Board board, String body) {
+        try {
+            return PuzzleCorpus.encode(board);
+        } catch (IllegalArgumentException e) {
+            return body.trim().replace("\r", "");
+        }
+    }
+
+    private static String readBody(InputStream in) throws IOException {
+        byte[] bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+        return bytes.length > MAX_BODY_BYTES ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "true" : pair.substring(eq + 1);
+            query.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    private static String error(String message) {
+        return "{\"error\":" + Json.quote(message) + "}";
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = (json + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static class Result {
+        private final boolean solved;
+        // Set when the search could have missed a solution, so an empty one proves nothing.
+        private final boolean approximate;
+        private final List<Move> solution;
+        private final int nodesVisited;
+        private final long elapsedNanos;
+        // Bitstate filter statistics, NaN for other searches.
+        private final double estimatedCoverage;
+        private final double collisionProbability;
+
+        Result(boolean solved, boolean approximate, List<Move> solution, int nodesVisited, long elapsedNanos,
+               double estimatedCoverage, double collisionProbability) {
+            this.solved = solved;
+            this.approximate = approximate;
+            this.solution = solution;
+            this.nodesVisited = nodesVisited;
+            this.elapsedNanos = elapsedNanos;
+            this.estimatedCoverage = estimatedCoverage;
+            this.collisionProbability = collisionProbability;
+        }
+
+        String toJson(String source) {
+            int cost = 0;
+            StringBuilder moves = new StringBuilder("[");
+            for (Move move : solution) {
+                cost += move.getSteps();
+                if (moves.length() > 1) {
+                    moves.append(',');
+                }
+                moves.append("{\"piece\":");
+                Json.appendQuoted(moves, move.getLabel());
+                moves.append(",\"direction\":\"").append(move.getDirection()).append("\",\"steps\":").append(move.getSteps()).append('}');
+            }
+            moves.append(']');
+            String status = solved ? "solved" : approximate ? "not_found" : "unsolvable";
+            String filter = Double.isNaN(estimatedCoverage) ? ""
+                    : ",\"estimated_coverage\":" + estimatedCoverage + ",\"collision_probability\":" + collisionProbability;
+            return "{\"status\":\"" + status + "\",\"source\":\"" + source + "\""
+                    + ",\"cost\":" + cost + ",\"nodes\":" + nodesVisited + filter
+                    + ",\"time_ms\":" + String.format(Locale.ROOT, "%.3f", elapsedNanos / 1e6)
+                    + ",\"moves\":" + moves + "}";
+        }
+    }
+}
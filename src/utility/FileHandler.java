@@ -1,316 +1,213 @@
 package utility;
 
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
+import java.io.File;
 import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import jdk.jfr.FlightRecorder;
 
 import model.Board;
 import model.Move;
 import model.Piece;
 
 public class FileHandler {
+    // Private-use code points stand in for labels longer than one character.
+    private static final char FIRST_GENERATED_ID = '\uE000';
+
     public static Board loadBoardFromFile(String filePath) throws IOException {
-        BufferedReader reader = new BufferedReader(new FileReader(filePath));
-        String line;
-        
-        try {
-            line = reader.readLine();
-            if (line == null) {
-                throw new IOException("File is empty or incomplete");
-            }
-            
-            String[] dimensions = line.split(" ");
-            if (dimensions.length < 2) {
-                throw new IOException("Invalid board dimensions format. Expected 'width height'");
+        // No event class is loaded without a recording; see BestFirstSearch.solve.
+        PuzzleFileEvent event = FlightRecorder.isInitialized() ? begin("read puzzle", filePath) : null;
+        boolean succeeded = false;
+        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
+            Board board = readBoard(reader);
+            succeeded = true;
+            return board;
+        } finally {
+            if (event != null) {
+                end(event, succeeded);
             }
-            
-            int width = Integer.parseInt(dimensions[0]);
-            int height = Integer.parseInt(dimensions[1]);
-            
-            line = reader.readLine();
-            
-            int exitRow = -1;
-            int exitCol = -1;
-            String[] allLines = new String[height + 2]; 
-            int lineCount = 0;
-            int gridStartIndex = -1;
-            
-            while ((line = reader.readLine()) != null && lineCount < height + 2) {
-                allLines[lineCount++] = line;
+        }
+    }
+
+    // Reads the grid one line at a time, keeping only each piece's bounding box.
+    // Rows are either one character per cell, or whitespace-separated labels when a
+    // board has more vehicles than single characters can name.
+    public static Board readBoard(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            throw new IOException("File is empty or incomplete");
+        }
+
+        String[] dimensions = line.trim().split("\\s+");
+        if (dimensions.length < 2) {
+            throw new IOException("Invalid board dimensions format. Expected 'width height'");
+        }
+
+        int width = Integer.parseInt(dimensions[0]);
+        int height = Integer.parseInt(dimensions[1]);
+        if (width > Board.MAX_DIMENSION || height > Board.MAX_DIMENSION) {
+            throw new IOException("Board is " + width + "x" + height + "; width and height are limited to " + Board.MAX_DIMENSION);
+        }
+
+        reader.readLine();
+
+        int exitRow = -1;
+        int exitCol = -1;
+        boolean exitFound = false;
+        Map<String, int[]> pieceBounds = new LinkedHashMap<>();
+
+        int row = 0;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
             }
-            
-            for (int i = 0; i < lineCount; i++) {
-                String currentLine = allLines[i];
-                int kPos = currentLine.indexOf('K');
-                
-                if (kPos >= 0) {
-                    if (i == 0) {
-                        exitRow = -1;
-                        gridStartIndex = 1; 
-                        
-                        exitCol = kPos;
-                        System.out.println("DEBUG: K found above grid at column position " + kPos); 
-                        
-                    } else if (i >= height) {
-                        exitRow = height;
-                        
-                        exitCol = kPos;
-                        System.out.println("DEBUG: K found below grid at column position " + kPos);
-                        
-                    } else {
-                        exitRow = i - (gridStartIndex == -1 ? 0 : gridStartIndex);
-                        
-                        int colBeforeK = 0;
-                        for (int c = 0; c < kPos; c++) {
-                            if (currentLine.charAt(c) != ' ') {
-                                colBeforeK++;
-                            }
-                        }
-                        
-                        if (colBeforeK == 0) {
-                            exitCol = -1;
-                        } else if (colBeforeK >= width) {
-                            exitCol = width;
-                        } else {
-                            exitCol = colBeforeK - 1;
-                        }
-                    }
-                    
-                    allLines[i] = allLines[i].replace("K", "");
+            List<String> cells = splitCells(line);
+            int kIndex = cells.indexOf("K");
+
+            if (kIndex >= 0 && isExitOnlyLine(cells, width)) {
+                if (row == 0 || row >= height) {
+                    exitRow = row == 0 ? -1 : height;
+                    exitCol = cells.size() > 1 ? kIndex : line.indexOf('K');
+                    exitFound = true;
+                }
+                if (row >= height) {
                     break;
                 }
+                continue;
             }
-            
-            if (exitRow == -1 && exitCol == -1) {
-                throw new IOException("No exit position (K) found in the puzzle");
-            }
-            if (gridStartIndex == -1) {
-                gridStartIndex = 0;
+            if (row >= height) {
+                continue;
             }
-            
-            char[][] grid = new char[height][width];
-            for (int r = 0; r < height; r++) {
-                for (int c = 0; c < width; c++) {
-                    grid[r][c] = '.';
+
+            if (kIndex >= 0) {
+                exitRow = row;
+                if (kIndex == 0) {
+                    exitCol = -1;
+                } else if (kIndex >= width) {
+                    exitCol = width;
+                } else {
+                    exitCol = kIndex - 1;
                 }
+                exitFound = true;
+                cells.remove(kIndex);
             }
-            
-            for (int r = 0; r < height; r++) {
-                if (gridStartIndex + r >= lineCount) {
-                    break; 
-                }
-                
-                String currentLine = allLines[gridStartIndex + r];
-                
-                int gridCol = 0;
-                for (int c = 0; c < currentLine.length() && gridCol < width; c++) {
-                    char ch = currentLine.charAt(c);
-                    if (ch != ' ') {
-                        grid[r][gridCol++] = ch;
-                    }
+
+            for (int c = 0; c < Math.min(width, cells.size()); c++) {
+                String label = cells.get(c);
+                if (label.equals(".")) {
+                    continue;
                 }
-            }
-            
-            Board board = new Board(width, height);
-            board.setExit(exitRow, exitCol);
-            
-            Map<Character, int[]> pieceBounds = new HashMap<>();
-            
-            for (int r = 0; r < height; r++) {
-                for (int c = 0; c < width; c++) {
-                    char id = grid[r][c];
-                    if (id != '.') {
-                        if (!pieceBounds.containsKey(id)) {
-                            pieceBounds.put(id, new int[] {r, c, r, c});
-                        } else {
-                            int[] bounds = pieceBounds.get(id);
-                            bounds[2] = Math.max(bounds[2], r);
-                            bounds[3] = Math.max(bounds[3], c);
-                        }
-                    }
+                int[] bounds = pieceBounds.get(label);
+                if (bounds == null) {
+                    pieceBounds.put(label, new int[] {row, c, row, c});
+                } else {
+                    bounds[2] = Math.max(bounds[2], row);
+                    bounds[3] = Math.max(bounds[3], c);
                 }
             }
-            
-            for (Map.Entry<Character, int[]> entry : pieceBounds.entrySet()) {
-                char id = entry.getKey();
-                int[] bounds = entry.getValue();
-                
-                int startRow = bounds[0];
-                int startCol = bounds[1];
-                int endRow = bounds[2];
-                int endCol = bounds[3];
-                
-                boolean isHorizontal = (startRow == endRow);
-                int length = isHorizontal ? (endCol - startCol + 1) : (endRow - startRow + 1);
-                boolean isPrimary = (id == 'P');
-                
-                Piece piece = new Piece(id, startRow, startCol, length, isHorizontal, isPrimary);
-                board.addPiece(piece);
-            }
-            
-            return board;
-        } finally {
-            reader.close();
+            row++;
         }
-    }
 
-    public static void printBoard(Board board, char movingPieceId) {
-        int height = board.getHeight();
-        int width = board.getWidth();
-        int exitRow = board.getExitRow();
-        int exitCol = board.getExitCol();
-       
-        final String RESET = "\u001B[0m";
-        final String RED = "\u001B[91m";
-        final String GREEN = "\u001B[92m";
+        if (!exitFound) {
+            throw new IOException("No exit position (K) found in the puzzle");
+        }
 
-        System.out.print("+");
-        for (int c = 0; c < width; c++) {
-            if (exitRow == -1 && exitCol == c) {
-                System.out.print("   +");
-            } else {
-                System.out.print("---+");
-            }
+        Board board = new Board(width, height);
+        board.setExit(exitRow, exitCol);
+
+        char nextGeneratedId = FIRST_GENERATED_ID;
+        for (Map.Entry<String, int[]> entry : pieceBounds.entrySet()) {
+            String label = entry.getKey();
+            int[] bounds = entry.getValue();
+
+            int startRow = bounds[0];
+            int startCol = bounds[1];
+            int endRow = bounds[2];
+            int endCol = bounds[3];
+
+            boolean isHorizontal = (startRow == endRow);
+            int length = isHorizontal ? (endCol - startCol + 1) : (endRow - startRow + 1);
+            boolean isPrimary = label.equals("P");
+            char id = label.length() == 1 ? label.charAt(0) : nextGeneratedId++;
+
+            Piece piece = new Piece(id, label, startRow, startCol, length, isHorizontal, isPrimary);
+            board.addPiece(piece);
         }
-        System.out.println();
-        
-        for (int r = 0; r < height; r++) {
-            if (exitCol == -1 && exitRow == r) {
-                System.out.print(" ");  
-            } else {
-                System.out.print("|");
-            }
-            
-            for (int c = 0; c < width; c++) {
-                char cell = board.getCell(r, c);
-              
-                String color = "";
-                if (cell == movingPieceId) {
-                    color = GREEN; 
-                } else if (cell == 'P') {
-                    color = RED; 
-                }
-                System.out.print(" " + color + cell + RESET + " ");
-                if (c == width - 1 && r == exitRow) {
-                    System.out.print(" ");
 
-                } else {
-                    System.out.print("|");
-                }
-            }
-            System.out.println();
-            System.out.print("+");
-            for (int c = 0; c < width; c++) {
-                if (r == height - 1 && exitRow == height && exitCol == c) {
-                    System.out.print("   +"); 
-                } else {
-                    System.out.print("---+");
+        return board;
+    }
+
+    private static List<String> splitCells(String line) {
+        String[] tokens = line.trim().split("\\s+");
+        List<String> cells = new ArrayList<>();
+        if (tokens.length > 1) {
+            Collections.addAll(cells, tokens);
+        } else {
+            for (int i = 0; i < line.length(); i++) {
+                char ch = line.charAt(i);
+                if (ch != ' ' && ch != '\t') {
+                    cells.add(String.valueOf(ch));
                 }
             }
-            System.out.println();
         }
+        return cells;
     }
 
-    public static void saveSolutionToFile(List<Move> solution, List<Board> boardStates, String filePath, long timeTaken, int nodesVisited) throws IOException {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
-            writer.write("============================================");
-            writer.write("\n      *** RUSH HOUR PUZZLE SOLVER ***");
-            writer.write("\n============================================");
-            
-            // Write initial state
-            writer.write("\n\nInitial Board:\n");
-            writeBoard(writer, boardStates.get(0));
-            
-            writer.write("\n============================================");
-            writer.write("\n              SOLUTION FOUND");
-            writer.write("\n============================================");
-            
-            if (solution.isEmpty()) {
-                writer.write("\nNo solution found!");
-            } else {
-                writer.write("\nSolution path contains " + solution.size() + " moves:\n");
-            }
-            
-            // Write the solution steps
-            writer.write("\nStep by step solution:\n");
-            for (int i = 0; i < solution.size(); i++) {
-                Move move = solution.get(i);
-                writer.write("\nStep " + (i + 1) + ": " + move + "\n");
-                
-                // Write the board state after this move
-                writeBoard(writer, boardStates.get(i + 1));
+    // A line above or below the grid holding only the exit, optionally padded with '.' cells.
+    private static boolean isExitOnlyLine(List<String> cells, int width) {
+        if (cells.size() > width) {
+            return false;
+        }
+        for (String cell : cells) {
+            if (!cell.equals("K") && !cell.equals(".")) {
+                return false;
             }
-            
-            writer.write("\n============================================");
-            writer.write("\n               STATISTICS");
-            writer.write("\n============================================");
-            writer.write("\nPath length: " + solution.size() + " moves");
-            writer.write("\nNodes visited: " + nodesVisited);
-            writer.write("\nExecution time: " + timeTaken + " ms");
-            writer.write("\n============================================");
         }
+        return true;
+    }
+
+    public static void printBoard(Board board, char movingPieceId) {
+        StringBuilder sb = new StringBuilder();
+        SolutionWriter.appendBoard(sb, board, movingPieceId, true);
+        System.out.print(sb);
+    }
+
+    public static void saveSolutionToFile(List<Move> solution, List<Board> boardStates, String filePath, long timeTaken, int nodesVisited) throws IOException {
+        saveSolutionToFile(solution, boardStates.get(0), filePath, timeTaken, nodesVisited);
     }
 
-    // Helper method to write a board state
-    private static void writeBoard(BufferedWriter writer, Board board) throws IOException {
-        int height = board.getHeight();
-        int width = board.getWidth();
-        int exitRow = board.getExitRow();
-        int exitCol = board.getExitCol();
-        
-        // Print top border with possible exit at top
-        writer.write("+");
-        for (int c = 0; c < width; c++) {
-            if (exitRow == -1 && exitCol == c) {
-                writer.write("   +"); // Exit at top
-            } else {
-                writer.write("---+");
+    // Replays the solution from the initial board; see SolutionWriter.open for the formats.
+    public static void saveSolutionToFile(List<Move> solution, Board initialBoard, String filePath, long timeTaken, int nodesVisited) throws IOException {
+        PuzzleFileEvent event = FlightRecorder.isInitialized() ? begin("write solution", filePath) : null;
+        boolean succeeded = false;
+        try (SolutionWriter writer = SolutionWriter.open(filePath)) {
+            writer.write(initialBoard, solution, timeTaken, nodesVisited);
+            succeeded = true;
+        } finally {
+            if (event != null) {
+                end(event, succeeded);
             }
         }
-        writer.write("\n");
-        
-        // Print board rows
-        for (int r = 0; r < height; r++) {
-            // Left border with possible exit at left
-            if (exitCol == -1 && exitRow == r) {
-                writer.write(" ");  // Exit at left side
-            } else {
-                writer.write("|");
-            }
-            
-            // Cell contents
-            for (int c = 0; c < width; c++) {
-                char cell = board.getCell(r, c);
-                writer.write(" " + cell + " ");
-                
-                // Right border
-                if (c == width - 1) {
-                    if (exitCol == width && exitRow == r) {
-                        writer.write(" ");  // Exit at right side
-                    } else {
-                        writer.write("|");
-                    }
-                } else {
-                    writer.write("|");
-                }
-            }
-            writer.write("\n");
-            
-            // Print row separator with possible exit at bottom
-            writer.write("+");
-            for (int c = 0; c < width; c++) {
-                if (r == height - 1 && exitRow == height && exitCol == c) {
-                    writer.write("   +"); // Exit at bottom
-                } else {
-                    writer.write("---+");
-                }
-            }
-            writer.write("\n");
+    }
+
+    private static PuzzleFileEvent begin(String operation, String filePath) {
+        PuzzleFileEvent event = new PuzzleFileEvent();
+        event.operation = operation;
+        event.path = filePath;
+        event.begin();
+        return event;
+    }
+
+    private static void end(PuzzleFileEvent event, boolean succeeded) {
+        if (event.shouldCommit()) {
+            event.succeeded = succeeded;
+            event.bytes = new File(event.path).length();
+            event.commit();
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,218 @@
+package utility;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import model.Board;
+import model.Piece;
+
+// A file of many puzzles, one per line:
+//
+//     width height exitRow exitCol cells
+//
+// where cells holds the grid row by row with no separators ('.' for empty, 'P' for the
+// primary piece) and the exit uses Board's coordinates (-1 or width/height for an edge).
+// Blank lines and lines starting with '#' are skipped. The file is memory-mapped and only
+// line offsets are read up front; each puzzle is parsed straight from the mapped bytes
+// when it is asked for, so no per-line Strings are created.
+public class PuzzleCorpus implements Iterable<Board> {
+    private static final int MAX_ID = 128;
+
+    private final String filePath;
+    private final MappedByteBuffer buffer;
+    private final int[] offsets;
+    private final int count;
+
+    public PuzzleCorpus(String filePath) throws IOException {
+        this.filePath = filePath;
+        try (FileChannel channel = FileChannel.open(Path.of(filePath), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Corpus is too large to map: " + filePath);
+            }
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        int[] found = new int[1024];
+        int n = 0;
+        int limit = buffer.limit();
+        int pos = 0;
+        while (pos < limit) {
+            int start = pos;
+            while (pos < limit && buffer.get(pos) != '\n') {
+                pos++;
+            }
+            int first = skipSpaces(buffer, start, pos);
+            if (first < pos && buffer.get(first) != '#' && buffer.get(first) != '\r') {
+                if (n == found.length) {
+                    found = Arrays.copyOf(found, n * 2);
+                }
+                found[n++] = first;
+            }
+            pos++;
+        }
+        this.offsets = found;
+        this.count = n;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    // Absolute reads only, so several threads may parse puzzles from one corpus at once.
+    public Board getBoard(int index) throws IOException {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Puzzle " + index + " of " + count);
+        }
+        return parse(buffer, offsets[index], filePath + ": puzzle " + index);
+    }
+
+    // Parses one corpus line held in memory, e.g. a puzzle sent over the network.
+    public static Board parseLine(String line) throws IOException {
+        return parse(ByteBuffer.wrap(line.trim().getBytes(StandardCharsets.ISO_8859_1)), 0, "corpus line");
+    }
+
+    @Override
+    public Iterator<Board> iterator() {
+        return new Iterator<Board>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < count;
+            }
+
+            @Override
+            public Board next() {
+                if (next >= count) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    return getBoard(next++);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    private static Board parse(ByteBuffer buffer, int pos, String where) throws IOException {
+        int limit = buffer.limit();
+        int[] header = new int[4];
+        for (int i = 0; i < header.length; i++) {
+            pos = skipSpaces(buffer, pos, limit);
+            boolean negative = pos < limit && buffer.get(pos) == '-';
+            if (negative) {
+                pos++;
+            }
+            int start = pos;
+            int value = 0;
+            while (pos < limit && buffer.get(pos) >= '0' && buffer.get(pos) <= '9') {
+                value = value * 10 + (buffer.get(pos++) - '0');
+            }
+            if (pos == start) {
+                throw error(where, "expected width, height, exit row and exit column");
+            }
+            header[i] = negative ? -value : value;
+        }
+        int width = header[0];
+        int height = header[1];
+        if (width <= 0 || height <= 0) {
+            throw error(where, "invalid board dimensions");
+        }
+        if (width > Board.MAX_DIMENSION || height > Board.MAX_DIMENSION) {
+            throw error(where, "width and height are limited to " + Board.MAX_DIMENSION);
+        }
+
+        pos = skipSpaces(buffer, pos, limit);
+        if (pos + width * height > limit) {
+            throw error(where, "expected " + width * height + " cells");
+        }
+
+        // Bounding box per piece id, in order of first appearance like readBoard.
+        int[] minRow = new int[MAX_ID];
+        int[] minCol = new int[MAX_ID];
+        int[] maxRow = new int[MAX_ID];
+        int[] maxCol = new int[MAX_ID];
+        char[] order = new char[MAX_ID];
+        int pieceCount = 0;
+        Arrays.fill(minRow, -1);
+
+        for (int r = 0; r < height; r++) {
+            for (int c = 0; c < width; c++) {
+                int cell = buffer.get(pos++);
+                if (cell == '.') {
+                    continue;
+                }
+                if (cell <= ' ' || cell >= MAX_ID) {
+                    throw error(where, "unexpected character in cells");
+                }
+                if (minRow[cell] < 0) {
+                    minRow[cell] = r;
+                    minCol[cell] = c;
+                    order[pieceCount++] = (char) cell;
+                }
+                maxRow[cell] = r;
+                maxCol[cell] = Math.max(maxCol[cell], c);
+            }
+        }
+
+        Board board = new Board(width, height);
+        board.setExit(header[2], header[3]);
+        for (int i = 0; i < pieceCount; i++) {
+            char id = order[i];
+            boolean isHorizontal = minRow[id] == maxRow[id];
+            int length = isHorizontal ? maxCol[id] - minCol[id] + 1 : maxRow[id] - minRow[id] + 1;
+            board.addPiece(new Piece(id, minRow[id], minCol[id], length, isHorizontal, id == 'P'));
+        }
+        return board;
+    }
+
+    private static int skipSpaces(ByteBuffer buffer, int pos, int limit) {
+        while (pos < limit && (buffer.get(pos) == ' ' || buffer.get(pos) == '\t')) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static IOException error(String where, String message) {
+        return new IOException(where + ": " + message);
+    }
+
+    public static void write(Iterable<Board> boards, String filePath) throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath), 1 << 16)) {
+            for (Board board : boards) {
+                writer.write(encode(board));
+                writer.write('\n');
+            }
+        }
+    }
+
+    // Only single-character labels fit the one-character-per-cell layout.
+    public static String encode(Board board) {
+        for (Piece piece : board.getPieces().values()) {
+            if (piece.getId() >= MAX_ID || piece.getLabel().length() != 1) {
+                throw new IllegalArgumentException("Piece " + piece.getLabel() + " cannot be stored in a corpus line");
+            }
+        }
+        StringBuilder sb = new StringBuilder(board.getWidth() * board.getHeight() + 24);
+        sb.append(board.getWidth()).append(' ').append(board.getHeight()).append(' ')
+                .append(board.getExitRow()).append(' ').append(board.getExitCol()).append(' ');
+        for (int r = 0; r < board.getHeight(); r++) {
+            for (int c = 0; c < board.getWidth(); c++) {
+                sb.append(board.getCell(r, c));
+            }
+        }
+        return sb.toString();
+    }
+}
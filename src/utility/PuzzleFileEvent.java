@@ -0,0 +1,33 @@
+package utility;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// A puzzle read or solution written by FileHandler. Off unless a recording enables
+// rushhour.PuzzleFile.
+@Name("rushhour.PuzzleFile")
+@Label("Puzzle File I/O")
+@Category({"Rush Hour", "I/O"})
+@Description("Reading a puzzle or writing a solution file")
+@Enabled(false)
+@StackTrace(false)
+class PuzzleFileEvent extends Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("Path")
+    String path;
+
+    @Label("Size")
+    @DataAmount
+    long bytes;
+
+    @Label("Succeeded")
+    boolean succeeded;
+}
@@ -0,0 +1,178 @@
+package utility;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import model.Board;
+import model.Move;
+import model.Piece;
+
+// Writes a solution while replaying it on a single working board, so memory stays constant
+// however long the solution is. Each board is rendered into one reused buffer and handed to
+// the writer in a single call.
+public class SolutionWriter implements Closeable {
+    public enum Format {
+        // The step-by-step report with every intermediate board.
+        FULL,
+        // One "label direction steps" line per move.
+        MOVES
+    }
+
+    private static final String RULE = "============================================";
+    private static final String RESET = "\u001B[0m";
+    private static final String RED = "\u001B[91m";
+    private static final String GREEN = "\u001B[92m";
+
+    private final Writer writer;
+    private final Format format;
+    private final StringBuilder buffer = new StringBuilder(4096);
+
+    public SolutionWriter(Writer writer, Format format) {
+        this.writer = writer;
+        this.format = format;
+    }
+
+    // The format follows the file name: ".moves" selects the move list, and a trailing
+    // ".gz" compresses either format.
+    public static SolutionWriter open(String filePath) throws IOException {
+        boolean gzip = filePath.endsWith(".gz");
+        String baseName = gzip ? filePath.substring(0, filePath.length() - 3) : filePath;
+        Format format = baseName.endsWith(".moves") ? Format.MOVES : Format.FULL;
+
+        OutputStream out = new FileOutputStream(filePath);
+        if (gzip) {
+            out = new GZIPOutputStream(out, 1 << 16);
+        }
+        return new SolutionWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16), format);
+    }
+
+    public void write(Board initialBoard, List<Move> solution, long timeTaken, int nodesVisited) throws IOException {
+        if (format == Format.MOVES) {
+            writeMoves(solution, timeTaken, nodesVisited);
+        } else {
+            writeReport(initialBoard, solution, timeTaken, nodesVisited);
+        }
+        writer.flush();
+    }
+
+    private void writeMoves(List<Move> solution, long timeTaken, int nodesVisited) throws IOException {
+        writer.write("# moves " + solution.size() + " nodes " + nodesVisited + " time " + timeTaken + " ms\n");
+        for (Move move : solution) {
+            buffer.setLength(0);
+            buffer.append(move.getLabel()).append(' ').append(move.getDirection()).append(' ').append(move.getSteps()).append('\n');
+            writer.append(buffer);
+        }
+    }
+
+    private void writeReport(Board initialBoard, List<Move> solution, long timeTaken, int nodesVisited) throws IOException {
+        writer.write(RULE);
+        writer.write("\n      *** RUSH HOUR PUZZLE SOLVER ***");
+        writer.write("\n" + RULE);
+
+        writer.write("\n\nInitial Board:\n");
+        writeBoard(initialBoard);
+
+        writer.write("\n" + RULE);
+        writer.write("\n              SOLUTION FOUND");
+        writer.write("\n" + RULE);
+
+        if (solution.isEmpty()) {
+            writer.write("\nNo solution found!");
+        } else {
+            writer.write("\nSolution path contains " + solution.size() + " moves:\n");
+        }
+
+        writer.write("\nStep by step solution:\n");
+        Board board = initialBoard.copy();
+        for (int i = 0; i < solution.size(); i++) {
+            Move move = solution.get(i);
+            if (!board.movePiece(move.getPieceId(), move.getDirection(), move.getSteps())) {
+                throw new IOException("Step " + (i + 1) + " (" + move + ") is not a legal move");
+            }
+            writer.write("\nStep " + (i + 1) + ": " + move + "\n");
+            writeBoard(board);
+        }
+
+        writer.write("\n" + RULE);
+        writer.write("\n               STATISTICS");
+        writer.write("\n" + RULE);
+        writer.write("\nPath length: " + solution.size() + " moves");
+        writer.write("\nNodes visited: " + nodesVisited);
+        writer.write("\nExecution time: " + timeTaken + " ms");
+        writer.write("\n" + RULE);
+    }
+
+    private void writeBoard(Board board) throws IOException {
+        buffer.setLength(0);
+        appendBoard(buffer, board, '\0', false);
+        writer.append(buffer);
+    }
+
+    // Draws the board with its exit as a gap in the frame. With ansi set, the primary piece is
+    // red and the highlighted piece green.
+    static void appendBoard(StringBuilder sb, Board board, char highlightId, boolean ansi) {
+        int height = board.getHeight();
+        int width = board.getWidth();
+        int exitRow = board.getExitRow();
+        int exitCol = board.getExitCol();
+        int cellWidth = cellWidth(board);
+        char primaryId = board.getPrimaryPieceId();
+
+        appendSeparator(sb, width, cellWidth, exitRow == -1 ? exitCol : -2);
+        for (int r = 0; r < height; r++) {
+            sb.append(exitCol == -1 && exitRow == r ? ' ' : '|');
+            for (int c = 0; c < width; c++) {
+                char cell = board.getCell(r, c);
+                String label = cell == '.' ? "." : board.getLabel(cell);
+                sb.append(' ');
+                if (ansi) {
+                    sb.append(cell == highlightId ? GREEN : cell == primaryId ? RED : "");
+                }
+                sb.append(label);
+                for (int i = label.length(); i < cellWidth; i++) {
+                    sb.append(' ');
+                }
+                if (ansi) {
+                    sb.append(RESET);
+                }
+                sb.append(' ');
+                sb.append(c == width - 1 && exitCol == width && exitRow == r ? ' ' : '|');
+            }
+            sb.append('\n');
+            appendSeparator(sb, width, cellWidth, r == height - 1 && exitRow == height ? exitCol : -2);
+        }
+    }
+
+    private static void appendSeparator(StringBuilder sb, int width, int cellWidth, int gapCol) {
+        sb.append('+');
+        for (int c = 0; c < width; c++) {
+            char fill = c == gapCol ? ' ' : '-';
+            for (int i = 0; i < cellWidth + 2; i++) {
+                sb.append(fill);
+            }
+            sb.append('+');
+        }
+        sb.append('\n');
+    }
+
+    private static int cellWidth(Board board) {
+        int cellWidth = 1;
+        for (Piece piece : board.getPieces().values()) {
+            cellWidth = Math.max(cellWidth, piece.getLabel().length());
+        }
+        return cellWidth;
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}